@@ -0,0 +1,30 @@
+package org.cam.dbeaver.tabledef.excel.benchmark;
+
+import org.cam.dbeaver.tabledef.excel.ExcelTemplateStyle;
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.SchemaSnapshot;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
+
+// Opens up the rendering and save steps so they can be measured one at a time
+public class BenchmarkStyle extends ExcelTemplateStyle {
+
+	public BenchmarkStyle(String filePath, ExportOptions options, ExcelTemplate template) {
+		super(filePath, options, template);
+	}
+
+	public void render(SchemaSnapshot snapshot) {
+		generateTableNamesSheet(snapshot.getTables());
+		for (TableDef table : snapshot.getTables()) {
+			generateTableDetailSheets(table);
+		}
+	}
+
+	public void save() {
+		saveWorkbook();
+	}
+
+	public void discard() {
+		abort();
+	}
+}
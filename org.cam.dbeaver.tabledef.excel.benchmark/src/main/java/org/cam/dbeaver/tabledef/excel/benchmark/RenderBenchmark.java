@@ -0,0 +1,121 @@
+package org.cam.dbeaver.tabledef.excel.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.SchemaSnapshot;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Whole documents: rendering into the workbook writer, saving, and both together.
+// Run with -prof gc to get the allocation rate next to the throughput.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+	@Param({ "simple", "generic" })
+	public String style;
+
+	@Param({ "XSSF", "STREAMING", "DIRECT" })
+	public ExportOptions.Backend backend;
+
+	@Param({ "100" })
+	public int tables;
+
+	@Param({ "20" })
+	public int columns;
+
+	@Param({ "3" })
+	public int indexes;
+
+	@Param({ "2000" })
+	public int ddlLength;
+
+	private SchemaSnapshot snapshot;
+	private ExcelTemplate template;
+	private ExportOptions options;
+	private Path output;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		snapshot = SyntheticSchema.create(tables, columns, indexes, ddlLength);
+		template = ExcelTemplate.loadResource(style + ".xml");
+		options = new ExportOptions();
+		options.setBackend(backend);
+		output = Files.createTempFile("tabledef-benchmark", ".xlsx");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(output);
+	}
+
+	BenchmarkStyle newStyle() {
+		return new BenchmarkStyle(output.toString(), options, template);
+	}
+
+	// A style that has not written anything yet; whatever the benchmark left unsaved is dropped
+	@State(Scope.Thread)
+	public static class FreshStyle {
+		BenchmarkStyle style;
+
+		@Setup(Level.Invocation)
+		public void setUp(RenderBenchmark benchmark) {
+			style = benchmark.newStyle();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() {
+			style.discard();
+		}
+	}
+
+	// A style with the whole schema rendered but not saved
+	@State(Scope.Thread)
+	public static class RenderedStyle {
+		BenchmarkStyle style;
+
+		@Setup(Level.Invocation)
+		public void setUp(RenderBenchmark benchmark) {
+			style = benchmark.newStyle();
+			style.render(benchmark.snapshot);
+		}
+	}
+
+	@Benchmark
+	public BenchmarkStyle render(FreshStyle fresh) {
+		fresh.style.render(snapshot);
+		return fresh.style;
+	}
+
+	@Benchmark
+	public BenchmarkStyle save(RenderedStyle rendered) {
+		rendered.style.save();
+		return rendered.style;
+	}
+
+	@Benchmark
+	public BenchmarkStyle renderAndSave() {
+		BenchmarkStyle excel = newStyle();
+		excel.generateExcel(snapshot);
+		return excel;
+	}
+}
@@ -0,0 +1,103 @@
+package org.cam.dbeaver.tabledef.excel.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
+import org.cam.dbeaver.tabledef.excel.writer.SheetWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// addCell and mergeCell on one sheet of rows x cols cells.
+// The POI writers apply merges when rows are flushed or the sheet is finished, so for XSSF most of
+// the merge cost shows up in RenderBenchmark.save rather than here.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SheetWriterBenchmark {
+	@Param({ "XSSF", "STREAMING", "DIRECT" })
+	public ExportOptions.Backend backend;
+
+	@Param({ "1000" })
+	public int rows;
+
+	@Param({ "10" })
+	public int cols;
+
+	private ExcelTemplate template;
+	private ExportOptions options;
+	private Path output;
+	private BenchmarkStyle style;
+	private SheetWriter sheet;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		template = ExcelTemplate.loadResource("simple.xml");
+		options = new ExportOptions();
+		options.setBackend(backend);
+		output = Files.createTempFile("tabledef-benchmark", ".xlsx");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(output);
+	}
+
+	@Setup(Level.Invocation)
+	public void createSheet() {
+		style = new BenchmarkStyle(output.toString(), options, template);
+		sheet = style.createSheet("Bench");
+	}
+
+	@TearDown(Level.Invocation)
+	public void discardSheet() {
+		style.discard();
+	}
+
+	@Benchmark
+	public SheetWriter addCell() {
+		writeCells();
+		return sheet;
+	}
+
+	// Two-row merges down every column, like the grouped index cells of the detail sheets
+	@Benchmark
+	public SheetWriter mergeCell() {
+		writeCells();
+		for (int row = 0; row + 1 < rows; row += 2) {
+			for (int col = 0; col < cols; col++) {
+				style.mergeCell(sheet, row, row + 1, col, col);
+			}
+		}
+		return sheet;
+	}
+
+	private void writeCells() {
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				if ((col & 1) == 0) {
+					style.addCell(sheet, row, col, "r" + row + "c" + col, style.getCenterStyle());
+				} else {
+					style.addCell(sheet, row, col, row * cols + col, style.getRightStyle());
+				}
+			}
+		}
+	}
+}
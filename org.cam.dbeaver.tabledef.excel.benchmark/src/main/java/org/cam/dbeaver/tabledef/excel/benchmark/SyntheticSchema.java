@@ -0,0 +1,62 @@
+package org.cam.dbeaver.tabledef.excel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.SchemaSnapshot;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// Table definitions built in memory, shaped like a typical CUBRID schema
+public class SyntheticSchema {
+	private static final String[] TYPES = { "INTEGER", "VARCHAR", "BIGINT", "DATETIME", "NUMERIC", "CHAR" };
+
+	public static SchemaSnapshot create(int tableCount, int columnCount, int indexCount, int ddlLength) {
+		List<TableDef> tables = new ArrayList<>(tableCount);
+		for (int t = 0; t < tableCount; t++) {
+			tables.add(createTable(t, columnCount, indexCount, ddlLength));
+		}
+		return new SchemaSnapshot(tables);
+	}
+
+	private static TableDef createTable(int tableNo, int columnCount, int indexCount, int ddlLength) {
+		List<ColumnDef> columns = new ArrayList<>(columnCount);
+		for (int c = 0; c < columnCount; c++) {
+			String type = TYPES[c % TYPES.length];
+			columns.add(new ColumnDef(
+					"column_" + c,
+					type,
+					type.equals("VARCHAR") ? 255 : type.equals("CHAR") ? 10 : 0,
+					c == 0 || c % 3 == 0,
+					c % 4 == 1 ? "0" : null,
+					"Description of column " + c + " in table " + tableNo,
+					c == 0 ? 1 : 0,
+					c % 5 == 2 ? List.of(1) : List.of(),
+					c % 7 == 3,
+					null));
+		}
+
+		List<IndexKey> indexes = new ArrayList<>(indexCount);
+		for (int i = 0; i < indexCount; i++) {
+			IndexKey index = new IndexKey("idx_table_" + tableNo + "_" + i);
+			// Two key columns each, so the index number and name cells are merged over two rows
+			index.addColumn("column_" + (i % Math.max(columnCount, 1)), 1);
+			index.addColumn("column_" + ((i + 1) % Math.max(columnCount, 1)), 2);
+			indexes.add(index);
+		}
+
+		return new TableDef("PUBLIC", "table_" + tableNo, "Synthetic table " + tableNo, columns, indexes,
+				createDdl(tableNo, columns, ddlLength));
+	}
+
+	// Column lines are repeated until the text reaches the requested length
+	private static String createDdl(int tableNo, List<ColumnDef> columns, int ddlLength) {
+		StringBuilder ddl = new StringBuilder("CREATE TABLE [table_" + tableNo + "] (\n");
+		for (int i = 0; ddl.length() < ddlLength && !columns.isEmpty(); i++) {
+			ColumnDef column = columns.get(i % columns.size());
+			ddl.append("  [").append(column.getName()).append("] ").append(column.getTypeName()).append(",\n");
+		}
+		return ddl.append(");").toString();
+	}
+}
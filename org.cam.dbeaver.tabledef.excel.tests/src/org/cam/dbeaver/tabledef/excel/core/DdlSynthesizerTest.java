@@ -0,0 +1,192 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ConstraintIndex.ForeignKeyRef;
+import org.junit.jupiter.api.Test;
+
+// Catalog rows as CUBRID 11.2 returns them for a small schema, and the CREATE TABLE text expected for them in
+// the layout of DBeaver's CUBRID generator (header lines dropped the way TableDefinitionFetcher.getDDL does)
+class DdlSynthesizerTest {
+
+	@Test
+	void writesColumnsConstraintsAndTableOptions() {
+		Relationships.ForeignKey foreignKey = new Relationships.ForeignKey("fk_orders_customer", "DBA.orders",
+				"DBA.orders", "DBA.customer", "CASCADE", "RESTRICT");
+		foreignKey.addColumn("customer_id", "id");
+		DdlSynthesizer synthesizer = new DdlSynthesizer(ExportOptions.DdlSource.SYNTHESIZED, true,
+				Relationships.of(List.of(foreignKey)));
+		synthesizer.addAttribute("DBA.orders", "id", "INSTANCE", null, "INTEGER", 10, 0, null, true, null);
+		synthesizer.addAttribute("DBA.orders", "code", "INSTANCE", null, "STRING", 20, 0, null, true, null);
+		synthesizer.addAttribute("DBA.orders", "customer_id", "INSTANCE", null, "INTEGER", 10, 0, null, false, null);
+		synthesizer.addAttribute("DBA.orders", "amount", "INSTANCE", null, "NUMERIC", 12, 2, "0", false, null);
+		synthesizer.addAttribute("DBA.orders", "ordered_at", "INSTANCE", null, "DATETIME", 0, 0, "SYS_DATETIME", true, null);
+		synthesizer.addIndexKey("DBA.orders", "pk_orders_id", true, false, true, false, "id", false);
+		synthesizer.addIndexKey("DBA.orders", "fk_orders_customer", false, true, false, false, "customer_id", false);
+		synthesizer.addIndexKey("DBA.orders", "u_orders_code", false, false, true, false, "code", false);
+		synthesizer.addIndexKey("DBA.orders", "i_orders_ordered_at", false, false, false, false, "ordered_at", true);
+		synthesizer.addIndexKey("DBA.orders", "r_orders_code", false, false, false, true, "code", false);
+		synthesizer.addTableOptions("DBA.orders", true, "utf8", "utf8_bin");
+		synthesizer.addAutoIncrement("DBA.orders", "id", "1", "1");
+
+		List<ColumnDef> columns = List.of(
+				column("id", "INTEGER", true, null, "order number", 1, null),
+				column("code", "VARCHAR", true, null, null, 0, null),
+				column("customer_id", "INTEGER", false, null, null, 0, new ForeignKeyRef(1, "DBA.customer", "id")),
+				column("amount", "NUMERIC", false, "0", "it's net", 0, null),
+				column("ordered_at", "DATETIME", true, "SYS_DATETIME", null, 0, null));
+
+		assertDdl("""
+				-- DROP TABLE DBA.orders;
+
+				CREATE TABLE DBA.orders (
+					id INTEGER AUTO_INCREMENT(1, 1) NOT NULL COMMENT 'order number',
+					code VARCHAR(20) NOT NULL,
+					customer_id INTEGER,
+					amount NUMERIC(12,2) DEFAULT 0 COMMENT 'it''s net',
+					ordered_at DATETIME DEFAULT SYS_DATETIME NOT NULL,
+					CONSTRAINT pk_orders_id PRIMARY KEY (id),
+					CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES DBA.customer(id) ON DELETE CASCADE ON UPDATE RESTRICT,
+					CONSTRAINT u_orders_code UNIQUE (code)
+				)
+				REUSE_OID
+				CHARSET utf8 COLLATE utf8_bin
+				COMMENT='Orders';
+				CREATE INDEX i_orders_ordered_at ON DBA.orders (ordered_at DESC);
+				CREATE REVERSE INDEX r_orders_code ON DBA.orders (code);""",
+				synthesizer.synthesize("DBA.orders", "DBA.orders", "Orders", columns));
+	}
+
+	@Test
+	void writesSubclassesWithClassAttributes() {
+		DdlSynthesizer synthesizer = new DdlSynthesizer(ExportOptions.DdlSource.SYNTHESIZED, true, Relationships.of(List.of()));
+		synthesizer.addAttribute("DBA.manager", "id", "INSTANCE", "employee", "INTEGER", 10, 0, null, true, null);
+		synthesizer.addAttribute("DBA.manager", "name", "INSTANCE", "employee", "STRING", 50, 0, null, false, null);
+		synthesizer.addAttribute("DBA.manager", "dept", "INSTANCE", null, "CHAR", 4, 0, null, false, null);
+		synthesizer.addAttribute("DBA.manager", "head_count", "CLASS", null, "INTEGER", 10, 0, "0", false, "managers so far");
+		synthesizer.addAttribute("DBA.manager", "last_hired", "CLASS", null, "DATE", 0, 0, null, false, null);
+		synthesizer.addSuperClass("DBA.manager", "DBA.employee");
+		synthesizer.addTableOptions("DBA.manager", false, "iso88591", "iso88591_bin");
+
+		List<ColumnDef> columns = List.of(
+				column("id", "INTEGER", true, null, null, 0, null),
+				column("name", "VARCHAR", false, null, null, 0, null),
+				column("dept", "CHAR", false, null, null, 0, null));
+
+		assertDdl("""
+				-- DROP TABLE DBA.manager;
+
+				CREATE TABLE DBA.manager UNDER DBA.employee (
+					dept CHAR(4)
+				)
+				CLASS ATTRIBUTE (
+					head_count INTEGER DEFAULT 0 COMMENT 'managers so far',
+					last_hired DATE
+				)
+				DONT_REUSE_OID
+				CHARSET iso88591 COLLATE iso88591_bin;""",
+				synthesizer.synthesize("DBA.manager", "DBA.manager", null, columns));
+	}
+
+	@Test
+	void writesPartitions() {
+		DdlSynthesizer synthesizer = new DdlSynthesizer(ExportOptions.DdlSource.SYNTHESIZED, false, Relationships.of(List.of()));
+		synthesizer.addAttribute("sales", "id", "INSTANCE", null, "INTEGER", 10, 0, null, true, null);
+		synthesizer.addAttribute("sales", "sold_on", "INSTANCE", null, "DATE", 0, 0, null, false, null);
+		synthesizer.addIndexKey("sales", "pk_sales_id_sold_on", true, false, true, false, "id", false);
+		synthesizer.addIndexKey("sales", "pk_sales_id_sold_on", true, false, true, false, "sold_on", false);
+		synthesizer.addPartition("sales", "before_2024", "RANGE", "[sold_on]", "{NULL, date '2024-01-01'}");
+		synthesizer.addPartition("sales", "later", "RANGE", "[sold_on]", "{date '2024-01-01', NULL}");
+		synthesizer.addTableOptions("sales", true, "utf8", "utf8_bin");
+
+		List<ColumnDef> columns = List.of(
+				column("id", "INTEGER", true, null, null, 1, null),
+				column("sold_on", "DATE", false, null, null, 2, null));
+
+		assertDdl("""
+				-- DROP TABLE PUBLIC.sales;
+
+				CREATE TABLE PUBLIC.sales (
+					id INTEGER NOT NULL,
+					sold_on DATE,
+					CONSTRAINT pk_sales_id_sold_on PRIMARY KEY (id, sold_on)
+				)
+				REUSE_OID
+				CHARSET utf8 COLLATE utf8_bin
+				PARTITION BY RANGE ([sold_on]) (
+					PARTITION before_2024 VALUES LESS THAN (date '2024-01-01'),
+					PARTITION later VALUES LESS THAN MAXVALUE
+				);""",
+				synthesizer.synthesize("sales", "PUBLIC.sales", "", columns));
+	}
+
+	// When the driver's foreign keys could not be read the constraint is still written, without its rules
+	@Test
+	void writesForeignKeysWithoutRelationships() {
+		DdlSynthesizer synthesizer = new DdlSynthesizer(ExportOptions.DdlSource.SYNTHESIZED, true, null);
+		synthesizer.addAttribute("DBA.line", "order_id", "INSTANCE", null, "INTEGER", 10, 0, null, true, null);
+		synthesizer.addIndexKey("DBA.line", "fk_line_order", false, true, false, false, "order_id", false);
+		synthesizer.addTableOptions("DBA.line", true, null, null);
+
+		List<ColumnDef> columns = List.of(
+				column("order_id", "INTEGER", true, null, null, 0, new ForeignKeyRef(1, "DBA.orders", "id")));
+
+		assertDdl("""
+				-- DROP TABLE DBA.line;
+
+				CREATE TABLE DBA.line (
+					order_id INTEGER NOT NULL,
+					CONSTRAINT fk_line_order FOREIGN KEY (order_id) REFERENCES DBA.orders(id)
+				)
+				REUSE_OID;""",
+				synthesizer.synthesize("DBA.line", "DBA.line", null, columns));
+	}
+
+	// db_attribute keeps the internal type names; the DDL shows the SQL ones, the collection elements and the
+	// ENUM values SHOW COLUMNS reports
+	@Test
+	void writesSqlTypeNames() {
+		DdlSynthesizer synthesizer = new DdlSynthesizer(ExportOptions.DdlSource.SYNTHESIZED, true, Relationships.of(List.of()));
+		synthesizer.addCollectionElement("DBA.item", "tags", "STRING", 30, 0);
+		synthesizer.addCollectionElement("DBA.item", "tags", "INTEGER", 10, 0);
+		synthesizer.addAttribute("DBA.item", "qty", "INSTANCE", null, "SHORT", 5, 0, null, false, null);
+		synthesizer.addAttribute("DBA.item", "label", "INSTANCE", null, "VARNCHAR", 40, 0, null, false, null);
+		synthesizer.addAttribute("DBA.item", "flags", "INSTANCE", null, "VARBIT", 16, 0, null, false, null);
+		synthesizer.addAttribute("DBA.item", "tags", "INSTANCE", null, "SET", 0, 0, null, false, null);
+		synthesizer.addAttribute("DBA.item", "size", "INSTANCE", null, "ENUM", 0, 0, null, false, null);
+		synthesizer.addColumnType("DBA.item", "size", "ENUM('S', 'M', 'L')");
+		synthesizer.addTableOptions("DBA.item", true, null, null);
+
+		List<ColumnDef> columns = List.of(
+				column("qty", "SMALLINT", false, null, null, 0, null),
+				column("label", "NCHAR VARYING", false, null, null, 0, null),
+				column("flags", "BIT VARYING", false, null, null, 0, null),
+				column("tags", "SET", false, null, null, 0, null),
+				column("size", "ENUM", false, null, null, 0, null));
+
+		assertDdl("""
+				-- DROP TABLE DBA.item;
+
+				CREATE TABLE DBA.item (
+					qty SMALLINT,
+					label NCHAR VARYING(40),
+					flags BIT VARYING(16),
+					tags SET(VARCHAR(30), INTEGER),
+					size ENUM('S', 'M', 'L')
+				)
+				REUSE_OID;""",
+				synthesizer.synthesize("DBA.item", "DBA.item", null, columns));
+	}
+
+	private static ColumnDef column(String name, String typeName, boolean required, String defaultValue,
+			String description, int primaryKeyOrdinal, ForeignKeyRef foreignKeyRef) {
+		return new ColumnDef(name, typeName, 0, required, defaultValue, description, primaryKeyOrdinal, List.of(),
+				false, foreignKeyRef);
+	}
+
+	private static void assertDdl(String expected, String actual) {
+		assertEquals(expected.replace("\n", System.lineSeparator()), actual);
+	}
+}
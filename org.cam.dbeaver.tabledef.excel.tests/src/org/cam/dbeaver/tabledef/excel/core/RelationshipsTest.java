@@ -0,0 +1,94 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Imported key rows as the driver returns them, grouped against the foreign key names the catalog lists
+class RelationshipsTest {
+
+	@Test
+	void groupsBulkRowsByTableAndName() {
+		Relationships.Builder builder = new Relationships.Builder(true);
+		builder.expect("DBA", "orders", "fk_orders_customer");
+		builder.expect("DBA", "line", "fk_line_order");
+		addRow(builder, "DBA", "orders", "fk_orders_customer", "DBA", "customer", "customer_id", "id");
+		addRow(builder, "DBA", "line", "fk_line_order", "DBA", "orders", "order_id", "id");
+		addRow(builder, "DBA", "line", "fk_line_order", "DBA", "orders", "order_no", "no");
+		// A table the filter left out of the catalog query
+		addRow(builder, "DBA", "audit", "fk_audit_user", "DBA", "users", "user_id", "id");
+
+		assertTrue(builder.getIncompleteTables().isEmpty());
+		Relationships relationships = builder.build(2);
+		assertEquals(2, relationships.getForeignKeys().size());
+		Relationships.ForeignKey line = relationships.getForeignKeys("DBA.line").get(0);
+		assertEquals("DBA.line", line.getTableName());
+		assertEquals("DBA.orders", line.getReferencedTableName());
+		assertEquals(List.of("order_id", "order_no"), line.getColumns());
+		assertEquals(List.of("id", "no"), line.getReferencedColumns());
+		assertEquals("CASCADE", line.getOnDelete());
+		assertEquals("RESTRICT", line.getOnUpdate());
+		assertEquals(List.of(), relationships.getForeignKeys("DBA.audit"));
+		assertEquals(1, relationships.getFanIn("DBA.orders"));
+		assertEquals(2, relationships.getRequests());
+	}
+
+	// Rows without an owner are matched by table name, and only when no other owner has a table of that name
+	@Test
+	void matchesRowsWithoutOwnerByName() {
+		Relationships.Builder builder = new Relationships.Builder(true);
+		builder.expect("DBA", "orders", "fk_orders_customer");
+		builder.expect("DBA", "item", "fk_item_product");
+		builder.expect("SALES", "item", "fk_item_product");
+		addRow(builder, null, "ORDERS", "fk_orders_customer", null, "customer", "customer_id", "id");
+		addRow(builder, null, "item", "fk_item_product", null, "product", "product_id", "id");
+		addRow(builder, null, "audit", "fk_audit_user", null, "users", "user_id", "id");
+
+		assertEquals(List.of("DBA.item", "SALES.item"), builder.getIncompleteTables().stream().sorted().toList());
+		assertEquals("DBA.orders", builder.resolve(null, "orders"));
+		assertNull(builder.resolve(null, "item"));
+		assertNull(builder.resolve(null, "audit"));
+	}
+
+	// A driver that answers the bulk request with nothing leaves every table to a request of its own
+	@Test
+	void fallsBackPerTableAndReportsWhatIsStillMissing() {
+		Relationships.Builder builder = new Relationships.Builder(false);
+		builder.expect("DBA", "orders", "fk_orders_customer");
+		builder.expect("DBA", "line", "fk_line_order");
+		builder.expect("DBA", "line", "fk_line_product");
+
+		List<String> incomplete = builder.getIncompleteTables();
+		assertEquals(List.of("orders", "line"), incomplete);
+		for (String tableKey : incomplete) {
+			builder.clear(tableKey);
+		}
+		addRow(builder, "orders", "DBA", "orders", "fk_orders_customer", "DBA", "customer", "customer_id", "id");
+		// Only one of the two foreign keys of line comes back
+		addRow(builder, "line", "DBA", "line", "fk_line_order", "DBA", "orders", "order_id", "id");
+
+		Relationships relationships = builder.build(4);
+		assertEquals(1, relationships.getForeignKeys("orders").size());
+		assertNull(relationships.getForeignKeys("line"));
+		assertEquals(List.of("line"), relationships.getUnresolvedTables());
+		assertEquals(List.of("fk_orders_customer"),
+				relationships.getForeignKeys().stream().map(Relationships.ForeignKey::getName).toList());
+	}
+
+	private static void addRow(Relationships.Builder builder, String owner, String tableName, String name,
+			String referencedOwner, String referencedTable, String column, String referencedColumn) {
+		addRow(builder, builder.resolve(owner, tableName), owner, tableName, name, referencedOwner, referencedTable,
+				column, referencedColumn);
+	}
+
+	private static void addRow(Relationships.Builder builder, String tableKey, String owner, String tableName,
+			String name, String referencedOwner, String referencedTable, String column, String referencedColumn) {
+		builder.add(tableKey, owner, tableName, name, referencedOwner, referencedTable,
+				DatabaseMetaData.importedKeyCascade, DatabaseMetaData.importedKeyRestrict, column, referencedColumn);
+	}
+}
@@ -0,0 +1,85 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.SchemaDiff.Change;
+import org.cam.dbeaver.tabledef.excel.core.SchemaDiff.Kind;
+import org.cam.dbeaver.tabledef.excel.core.SchemaDiff.ObjectType;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+import org.junit.jupiter.api.Test;
+
+class SchemaDiffTest {
+
+	@Test
+	void listsChangesByTable() {
+		List<TableDef> before = List.of(
+				table("orders", "Orders",
+						List.of(column("id", "INTEGER", 10, 1), column("code", "VARCHAR", 20, 0)),
+						List.of(index("i_orders_code", "code"))),
+				table("audit", null, List.of(column("id", "INTEGER", 10, 0)), List.of()),
+				table("customer", null, List.of(column("id", "INTEGER", 10, 1)), List.of()));
+		List<TableDef> after = List.of(
+				table("region", null, List.of(column("id", "INTEGER", 10, 1)), List.of()),
+				table("orders", "Orders",
+						List.of(column("code", "VARCHAR", 40, 0), column("id", "INTEGER", 10, 1),
+								column("note", "VARCHAR", 100, 0)),
+						List.of(index("i_orders_note", "note"))),
+				table("customer", null, List.of(column("id", "INTEGER", 10, 1)), List.of()));
+
+		SchemaDiff diff = SchemaDiff.compare(before, after);
+		assertEquals(List.of(
+				"Dropped|Table|DBA.audit|||1 columns|",
+				"Altered|Column|DBA.orders|code|Length|20|40",
+				"Added|Column|DBA.orders|note|||VARCHAR(100)",
+				"Altered|Table|DBA.orders||Column order|id, code|code, id",
+				"Added|Index|DBA.orders|i_orders_note|||note",
+				"Dropped|Index|DBA.orders|i_orders_code||code|",
+				"Added|Table|DBA.region||||1 columns"),
+				diff.getChanges().stream().map(SchemaDiffTest::format).toList());
+		assertEquals(1, diff.getAlteredTables());
+		assertEquals(1, diff.getCount(ObjectType.TABLE, Kind.ADDED));
+		assertEquals(1, diff.getCount(ObjectType.TABLE, Kind.ALTERED));
+		assertEquals(1, diff.getCount(ObjectType.COLUMN, Kind.ALTERED));
+		assertEquals(3, diff.getTablesBefore());
+		assertEquals(3, diff.getTablesAfter());
+	}
+
+	// The order indexes are listed in is not a change
+	@Test
+	void ignoresIndexOrder() {
+		List<ColumnDef> columns = List.of(column("id", "INTEGER", 10, 1), column("code", "VARCHAR", 20, 0));
+		List<TableDef> before = List.of(table("orders", null, columns,
+				List.of(index("i_orders_code", "code"), index("i_orders_id_code", "id", "code"))));
+		List<TableDef> after = List.of(table("orders", null, columns,
+				List.of(index("i_orders_id_code", "id", "code"), index("i_orders_code", "code"))));
+
+		SchemaDiff diff = SchemaDiff.compare(before, after);
+		assertTrue(diff.isEmpty());
+		assertEquals(0, diff.getAlteredTables());
+	}
+
+	private static String format(Change change) {
+		return String.join("|", change.getKind().getLabel(), change.getObjectType().getLabel(), change.getTableName(),
+				change.getObjectName(), change.getAttribute(), change.getBefore(), change.getAfter());
+	}
+
+	private static TableDef table(String name, String description, List<ColumnDef> columns, List<IndexKey> indexes) {
+		return new TableDef("DBA", name, description, columns, indexes, "");
+	}
+
+	private static ColumnDef column(String name, String typeName, long maxLength, int primaryKeyOrdinal) {
+		return new ColumnDef(name, typeName, maxLength, primaryKeyOrdinal > 0, null, null, primaryKeyOrdinal,
+				List.of(), false, null);
+	}
+
+	private static IndexKey index(String name, String... columns) {
+		IndexKey index = new IndexKey(name);
+		for (int i = 0; i < columns.length; i++) {
+			index.addColumn(columns[i], i + 1);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,57 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TableDefinitionFetcherTest {
+
+	// db_attribute's data_type and prec against the type name and length DBeaver's CubridTableColumn reports,
+	// which are the driver's TYPE_NAME and COLUMN_SIZE
+	@Test
+	void mapsCatalogTypesToDBeaverTypes() {
+		String[][] cases = {
+				// data_type, prec, type name, length
+				{ "STRING", "20", "VARCHAR", "20" },
+				{ "STRING", "1073741823", "VARCHAR", "1073741823" },
+				{ "CHAR", "4", "CHAR", "4" },
+				{ "SHORT", "5", "SMALLINT", "5" },
+				{ "INTEGER", "10", "INTEGER", "10" },
+				{ "BIGINT", "19", "BIGINT", "19" },
+				{ "NUMERIC", "12", "NUMERIC", "12" },
+				{ "VARNCHAR", "30", "NCHAR VARYING", "30" },
+				{ "VARBIT", "8", "BIT VARYING", "8" },
+				{ "DATETIME", "23", "DATETIME", "23" },
+				{ "CLOB", "0", "CLOB", "0" }
+		};
+		for (String[] c : cases) {
+			ColumnDef column = TableDefinitionFetcher.toColumnDef("col", c[0], Long.parseLong(c[1]), "YES", null, null);
+			assertEquals(c[2], column.getTypeName(), c[0]);
+			assertEquals(Long.parseLong(c[3]), column.getMaxLength(), c[0]);
+		}
+	}
+
+	@Test
+	void readsNullabilityDefaultAndComment() {
+		ColumnDef column = TableDefinitionFetcher.toColumnDef("code", "STRING", 20, "NO", "'A'", "order code");
+		assertEquals("code", column.getName());
+		assertTrue(column.isRequired());
+		assertEquals("'A'", column.getDefaultValue());
+		assertEquals("order code", column.getDescription());
+		assertFalse(column.isPrimaryKey());
+		assertFalse(TableDefinitionFetcher.toColumnDef("note", null, 0, "YES", null, null).isRequired());
+		assertEquals("", TableDefinitionFetcher.toColumnDef("note", null, 0, "YES", null, null).getTypeName());
+	}
+
+	@Test
+	void skipsGeneratorHeaderLines() {
+		String nl = System.lineSeparator();
+		assertEquals("CREATE TABLE DBA.t (" + nl + "\tid INTEGER" + nl + ");",
+				TableDefinitionFetcher.skipLines("-- header\r\n-- DBA.t\r\n\r\n\r\nCREATE TABLE DBA.t (\r\n\tid INTEGER\n);\n\n", 4));
+		assertEquals("b", TableDefinitionFetcher.skipLines("a\nb", 1));
+		assertEquals("", TableDefinitionFetcher.skipLines("a\nb", 2));
+		assertEquals("", TableDefinitionFetcher.skipLines("only a header", 1));
+	}
+}
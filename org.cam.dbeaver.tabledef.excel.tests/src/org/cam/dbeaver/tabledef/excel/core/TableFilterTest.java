@@ -0,0 +1,172 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+// accepts filters the tables DBeaver lists, toSql the catalog queries; both have to select the same tables.
+// The condition is evaluated here the way the database would, with LIKE matched independently of TableFilter.
+class TableFilterTest {
+	private static final String[][] TABLES = {
+			{ "DBA", "orders" }, { "DBA", "order_line" }, { "DBA", "orderXline" }, { "DBA", "audit_log" },
+			{ "DBA", "tmp_orders" }, { "dba", "Customer" }, { "SALES", "orders" }, { "SALES", "region" },
+			{ "sales", "tmp%x" }, { "PUBLIC", "code" }
+	};
+
+	@Test
+	void acceptsTheTablesItsSqlSelects() {
+		List<TableFilter> filters = List.of(
+				TableFilter.ALL,
+				TableFilter.parse("dba", null, null, null),
+				TableFilter.parse("DBA, sales", "order%", null, null),
+				TableFilter.parse(null, "order_line", null, null),
+				TableFilter.parse(null, "%", "tmp%,audit_%", null),
+				TableFilter.parse(null, null, "%x", null),
+				TableFilter.parse(null, null, null, "dba.orders, SALES.region"),
+				TableFilter.parse("SALES", "%o%", "reg%", "sales.orders,dba.customer"));
+		for (TableFilter filter : filters) {
+			List<String> parameters = new ArrayList<>();
+			String sql = filter.toSql("c", parameters);
+			for (String[] table : TABLES) {
+				boolean selected = sql.isEmpty() || new Condition(sql, parameters, table[0], table[1]).evaluate();
+				assertEquals(selected, filter.accepts(table[0], table[1]),
+						sql + " " + parameters + ": " + table[0] + "." + table[1]);
+			}
+		}
+	}
+
+	@Test
+	void skipsOwnersWithoutPickedTables() {
+		TableFilter filter = TableFilter.parse(null, null, null, "dba.orders");
+		assertTrue(filter.acceptsOwner("Dba"));
+		assertFalse(filter.acceptsOwner("SALES"));
+		assertTrue(TableFilter.parse(" ", "", null, null).isAll());
+		assertThrows(IllegalArgumentException.class, () -> TableFilter.parse(null, null, null, "orders"));
+	}
+
+	// A recursive descent over the conditions toSql writes: IN, LIKE, NOT LIKE and = on the UPPER columns,
+	// combined with AND, OR and parentheses
+	private static final class Condition {
+		private static final Pattern TOKEN = Pattern.compile("\\s*(UPPER\\(c\\.\\w+\\)|NOT LIKE|LIKE|IN|AND|OR|[(),?=])");
+
+		private final List<String> tokens = new ArrayList<>();
+		private final Iterator<String> parameters;
+		private final String owner;
+		private final String tableName;
+		private int position;
+
+		Condition(String sql, List<String> parameters, String owner, String tableName) {
+			Matcher matcher = TOKEN.matcher(sql);
+			int end = 0;
+			while (matcher.find() && matcher.start() == end) {
+				tokens.add(matcher.group(1));
+				end = matcher.end();
+			}
+			assertEquals(sql.length(), end, "Unexpected SQL: " + sql);
+			this.parameters = parameters.iterator();
+			this.owner = owner;
+			this.tableName = tableName;
+		}
+
+		boolean evaluate() {
+			boolean result = or();
+			assertEquals(tokens.size(), position);
+			assertFalse(parameters.hasNext());
+			return result;
+		}
+
+		// Every parameter is consumed, so no short-circuit evaluation
+		private boolean or() {
+			boolean result = and();
+			while (accept("OR")) {
+				result |= and();
+			}
+			return result;
+		}
+
+		private boolean and() {
+			boolean result = primary();
+			while (accept("AND")) {
+				result &= primary();
+			}
+			return result;
+		}
+
+		private boolean primary() {
+			if (accept("(")) {
+				boolean result = or();
+				expect(")");
+				return result;
+			}
+			String column = next();
+			String value = switch (column) {
+				case "UPPER(c.owner_name)" -> owner.toUpperCase(Locale.ROOT);
+				case "UPPER(c.class_name)" -> tableName.toUpperCase(Locale.ROOT);
+				default -> throw new AssertionError("Unexpected column " + column);
+			};
+			String operator = next();
+			switch (operator) {
+				case "IN" -> {
+					expect("(");
+					boolean result = false;
+					do {
+						expect("?");
+						result |= value.equals(parameters.next());
+					} while (accept(","));
+					expect(")");
+					return result;
+				}
+				case "LIKE", "NOT LIKE", "=" -> {
+					expect("?");
+					String parameter = parameters.next();
+					boolean result = operator.equals("=") ? value.equals(parameter) : like(value, 0, parameter, 0);
+					return operator.equals("NOT LIKE") ? !result : result;
+				}
+				default -> throw new AssertionError("Unexpected operator " + operator);
+			}
+		}
+
+		private static boolean like(String value, int v, String pattern, int p) {
+			if (p == pattern.length()) {
+				return v == value.length();
+			}
+			char c = pattern.charAt(p);
+			if (c == '%') {
+				for (int i = v; i <= value.length(); i++) {
+					if (like(value, i, pattern, p + 1)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			return v < value.length() && (c == '_' || c == value.charAt(v)) && like(value, v + 1, pattern, p + 1);
+		}
+
+		private boolean accept(String token) {
+			if (position < tokens.size() && tokens.get(position).equals(token)) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(String token) {
+			assertEquals(token, next());
+		}
+
+		private String next() {
+			assertTrue(position < tokens.size(), "SQL ends early");
+			return tokens.get(position++);
+		}
+	}
+}
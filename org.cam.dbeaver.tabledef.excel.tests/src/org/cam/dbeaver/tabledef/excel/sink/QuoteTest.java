@@ -0,0 +1,31 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// The value escaping of the text formats; comments and DDL carry quotes, separators and line breaks
+class QuoteTest {
+
+    @Test
+    void quotesJsonStrings() {
+        assertEquals("null", JsonLinesSink.quote(null));
+        assertEquals("\"\"", JsonLinesSink.quote(""));
+        assertEquals("\"order's \\\"code\\\"\"", JsonLinesSink.quote("order's \"code\""));
+        assertEquals("\"C:\\\\dump\"", JsonLinesSink.quote("C:\\dump"));
+        assertEquals("\"a\\nb\\r\\n\\tc\"", JsonLinesSink.quote("a\nb\r\n\tc"));
+        assertEquals("\"\\u0000\\u001f\"", JsonLinesSink.quote("\u0000\u001f"));
+        assertEquals("\"\u00e9\u65e5/\u007f\"", JsonLinesSink.quote("\u00e9\u65e5/\u007f"));
+    }
+
+    @Test
+    void quotesCsvFieldsOnlyWhenNeeded() {
+        assertEquals("", CsvSink.quote(""));
+        assertEquals("VARCHAR(20)", CsvSink.quote("VARCHAR(20)"));
+        assertEquals("\"a,b\"", CsvSink.quote("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvSink.quote("say \"hi\""));
+        assertEquals("\"line\nbreak\"", CsvSink.quote("line\nbreak"));
+        assertEquals("\"line\rbreak\"", CsvSink.quote("line\rbreak"));
+        assertEquals("it's; fine", CsvSink.quote("it's; fine"));
+    }
+}
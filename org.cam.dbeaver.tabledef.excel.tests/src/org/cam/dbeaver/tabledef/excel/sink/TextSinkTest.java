@@ -0,0 +1,54 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// The output file is only replaced when the export finishes
+class TextSinkTest {
+    private static final String PREVIOUS = "previous export\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsThePreviousFileWhenAborted() throws IOException {
+        Path file = dir.resolve("tables.csv");
+        Files.writeString(file, PREVIOUS, StandardCharsets.UTF_8);
+
+        CsvSink sink = new CsvSink(file.toString());
+        sink.tableList(List.of());
+        sink.abort();
+
+        assertEquals(PREVIOUS, Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals(List.of(file), list());
+    }
+
+    @Test
+    void replacesThePreviousFileWhenFinished() throws IOException {
+        Path file = dir.resolve("tables.csv");
+        Files.writeString(file, PREVIOUS, StandardCharsets.UTF_8);
+
+        CsvSink sink = new CsvSink(file.toString());
+        sink.tableList(List.of());
+        sink.finish();
+
+        assertNotEquals(PREVIOUS, Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals(List.of(file), list());
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+}
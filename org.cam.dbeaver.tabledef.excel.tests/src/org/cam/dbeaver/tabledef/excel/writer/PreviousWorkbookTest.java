@@ -0,0 +1,57 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PreviousWorkbookTest {
+    private static final int ROWS = 300;
+    private static final int ROW_WINDOW = 100;
+
+    @TempDir
+    Path dir;
+
+    // The merges come after the rows in the sheet XML; a streaming target flushes rows long before it gets there
+    @Test
+    void copiesMergesOfSheetsTallerThanTheRowWindow() throws IOException {
+        String previousPath = dir.resolve("previous.xlsx").toString();
+        WorkbookWriter previous = new PoiWorkbookWriter(previousPath, false, 0);
+        try {
+            SheetWriter sheet = previous.createSheet("DBA.orders");
+            sheet.mergeCells(0, 0, 0, 3);
+            sheet.mergeCells(ROWS - 2, ROWS - 1, 1, 1);
+            for (int r = 0; r < ROWS; r++) {
+                sheet.addCell(r, 0, "row " + r, CellFormat.LEFT);
+                sheet.addCell(r, 1, r, CellFormat.RIGHT);
+            }
+            previous.save();
+        } finally {
+            previous.dispose();
+        }
+
+        String copyPath = dir.resolve("copy.xlsx").toString();
+        WorkbookWriter copy = new PoiWorkbookWriter(copyPath, true, ROW_WINDOW);
+        try (PreviousWorkbook source = new PreviousWorkbook(previousPath)) {
+            source.copySheet("DBA.orders", copy.createSheet("DBA.orders"));
+            copy.save();
+        } finally {
+            copy.dispose();
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(Files.newInputStream(Path.of(copyPath)))) {
+            Sheet sheet = workbook.getSheet("DBA.orders");
+            assertEquals(2, sheet.getNumMergedRegions());
+            assertEquals("A1:D1", sheet.getMergedRegion(0).formatAsString());
+            assertEquals("B299:B300", sheet.getMergedRegion(1).formatAsString());
+            assertEquals("row 299", sheet.getRow(ROWS - 1).getCell(0).getStringCellValue());
+            assertEquals(ROWS - 1, (int) sheet.getRow(ROWS - 1).getCell(1).getNumericCellValue());
+        }
+    }
+}
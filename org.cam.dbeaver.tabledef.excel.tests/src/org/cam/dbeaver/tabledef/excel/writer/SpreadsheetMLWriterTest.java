@@ -0,0 +1,44 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class SpreadsheetMLWriterTest {
+
+    @Test
+    void escapesMarkupCharacters() throws IOException {
+        assertEquals("a &lt; b &amp;&amp; c &gt; &quot;d&quot; 'e'", escape("a < b && c > \"d\" 'e'"));
+        assertEquals("", escape(""));
+        assertEquals("é日😀", escape("é日😀"));
+    }
+
+    // Tab and line breaks are kept; other control characters are not allowed in XML 1.0
+    @Test
+    void escapesControlCharactersLikeExcel() throws IOException {
+        assertEquals("a\tb\nc\r\n", escape("a\tb\nc\r\n"));
+        assertEquals("_x0000__x0001__x001F_", escape("\u0000\u0001\u001f"));
+    }
+
+    // A literal _xHHHH_ would be read back as the character it names
+    @Test
+    void escapesTextThatLooksLikeAnEscape() throws IOException {
+        assertEquals("_x005F_x0041_ and _x005F_x00ff_", escape("_x0041_ and _x00ff_"));
+        assertEquals("snake_case _x _x12_ _xABCG_", escape("snake_case _x _x12_ _xABCG_"));
+    }
+
+    @Test
+    void replacesCharactersXmlCannotHold() throws IOException {
+        assertEquals("a?b?c??", escape("a\ud800b\udc00c\ufffe\uffff"));
+        assertEquals("?\ud83d\ude00?", escape("\ud83d\ud83d\ude00\ud83d"));
+    }
+
+    private static String escape(String text) throws IOException {
+        StringWriter out = new StringWriter();
+        SpreadsheetMLWriter.writeEscaped(out, text);
+        return out.toString();
+    }
+}
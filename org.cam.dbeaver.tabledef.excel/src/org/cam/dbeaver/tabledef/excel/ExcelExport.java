@@ -0,0 +1,191 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportPipeline;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.FingerprintManifest;
+import org.cam.dbeaver.tabledef.excel.core.MetaSession;
+import org.cam.dbeaver.tabledef.excel.core.Relationships;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher;
+import org.cam.dbeaver.tabledef.excel.sink.ExportSink;
+import org.cam.dbeaver.tabledef.excel.writer.PreviousWorkbook;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+// Exports the tables of a live data source through a style.
+// The styles only render TableDefs, so they can be driven without a connection as well.
+public class ExcelExport {
+    private final CubridDataSource dataSource;
+    private final ExcelMainStyle style;
+    private List<String> errors = List.of();
+
+    public ExcelExport(CubridDataSource dataSource, ExcelMainStyle style) {
+    	this.dataSource = dataSource;
+    	this.style = style;
+    }
+
+    public final void run() {
+    	run(new VoidProgressMonitor());
+    }
+
+    // Throws CancellationException when the monitor is cancelled; the partial workbook is discarded then and
+    // when the export fails, so no temp file or streaming spill is left behind
+    public final void run(DBRProgressMonitor monitor) {
+    	ExportStats stats = style.beginExport();
+    	try {
+    		if (style.getOptions().getSplit() != ExportOptions.Split.NONE) {
+    			runSplit(monitor, stats);
+    		} else if (style.getOptions().isIncremental()) {
+    			runIncremental(monitor, stats);
+    		} else {
+    			runFull(monitor, stats);
+    		}
+    	} catch (RuntimeException e) {
+    		style.abort();
+    		throw e;
+    	}
+    }
+
+    // A single workbook is written through ExcelSink, as the text formats are through theirs
+    private void runFull(DBRProgressMonitor monitor, ExportStats stats) {
+    	ExcelSink sink = new ExcelSink(style);
+    	errors = ExportPipeline.run(monitor, dataSource, style.getOptions(), new ExportPipeline.Renderer() {
+    		@Override
+    		public void renderTableList(List<TableDef> tables) {
+    			sink.tableList(tables);
+    		}
+
+    		@Override
+    		public void renderTable(TableDef table) {
+    			try {
+    				ExportSink.write(sink, table);
+    			} catch (IOException e) {
+    				throw new RuntimeException("Failed to write " + style.getFilePath() + ": " + e.getMessage(), e);
+    			}
+    		}
+
+    		@Override
+    		public void renderRelationships(Relationships relationships) {
+    			sink.relationships(relationships);
+    		}
+    	}, stats);
+    	sink.finish();
+    }
+
+    // The style's file becomes the index workbook, the tables go into part workbooks written alongside it
+    private void runSplit(DBRProgressMonitor monitor, ExportStats stats) {
+    	SplitRenderer renderer = new SplitRenderer(style, stats, monitor);
+    	try {
+    		errors = ExportPipeline.run(monitor, dataSource, style.getOptions(), renderer, stats);
+    		renderer.finish();
+    	} catch (RuntimeException e) {
+    		renderer.abort();
+    		throw e;
+    	}
+    	style.saveWorkbook();
+    }
+
+    // Only tables whose fingerprint differs from the manifest of the previous export are fetched again,
+    // the detail sheets of the others are copied from the previous workbook
+    private void runIncremental(DBRProgressMonitor monitor, ExportStats stats) {
+    	// The fingerprint queries and the export run on one meta session
+    	try (MetaSession session = MetaSession.open(monitor, dataSource)) {
+    		runIncremental(monitor, session, stats);
+    	}
+    }
+
+    private void runIncremental(DBRProgressMonitor monitor, MetaSession session, ExportStats stats) {
+    	String filePath = style.getFilePath();
+    	monitor.subTask("Comparing table fingerprints");
+    	Map<String, String> fingerprints = stats.time(ExportStats.Phase.FINGERPRINTS,
+    			() -> TableDefinitionFetcher.getFingerprints(monitor, session,
+    					style.getOptions().getTableFilter(), stats));
+    	FingerprintManifest manifest = FingerprintManifest.load(filePath);
+    	PreviousWorkbook previous = null;
+    	if (manifest != null && manifest.getLayout().equals(style.getLayoutId())) {
+    		try {
+    			previous = new PreviousWorkbook(filePath);
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    	}
+
+    	final PreviousWorkbook source = previous;
+    	Map<String, String> written = new HashMap<>();
+    	try {
+    		errors = ExportPipeline.run(monitor, session, style.getOptions(), new ExportPipeline.ReusingRenderer() {
+    			@Override
+    			public void renderTableList(List<TableDef> tables) {
+    				style.generateTableNamesSheet(tables);
+    			}
+
+    			@Override
+    			public void renderTable(TableDef table) {
+    				style.generateTableDetailSheets(table);
+    				recordFingerprint(table);
+    			}
+
+    			@Override
+    			public void reuseTable(TableDef header) {
+    				style.reuseTableSheet(source, header);
+    				recordFingerprint(header);
+    			}
+
+    			@Override
+    			public void renderRelationships(Relationships relationships) {
+    				style.generateRelationshipsSheet(relationships);
+    			}
+
+    			private void recordFingerprint(TableDef table) {
+    				String fingerprint = fingerprints.get(table.getFullName());
+    				if (fingerprint != null) {
+    					written.put(table.getFullName(), fingerprint);
+    				}
+    			}
+    		}, header -> source != null
+    				&& manifest.isUnchanged(header.getFullName(), fingerprints.get(header.getFullName()))
+    				&& source.hasSheet(header.getFullName()), fingerprints, stats);
+    		style.saveWorkbook();
+    	} finally {
+    		if (previous != null) {
+    			previous.close();
+    		}
+    	}
+    	new FingerprintManifest(style.getLayoutId(), written).save(filePath);
+    }
+
+    // tablelist_<database>_<yyyyMMdd>, without the extension
+    public static String getDefaultFileName(CubridDataSource dataSource) {
+    	String databaseName = dataSource.getContainer().getConnectionConfiguration().getDatabaseName();
+    	if (databaseName == null || databaseName.isBlank()) {
+    		databaseName = dataSource.getContainer().getName();
+    	}
+    	String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    	return "tablelist_" + databaseName + "_" + currentDate;
+    }
+
+    public CubridDataSource getDataSource() {
+    	return dataSource;
+    }
+
+    public ExcelMainStyle getStyle() {
+    	return style;
+    }
+
+    public List<String> getErrors() {
+    	return errors;
+    }
+
+    public ExportStats getStats() {
+    	return style.getStats();
+    }
+}
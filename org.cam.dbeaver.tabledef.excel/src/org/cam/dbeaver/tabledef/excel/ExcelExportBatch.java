@@ -0,0 +1,127 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+// Runs the exports of several data sources at the same time, each into its own workbook.
+// One failing export does not stop the others; its exception is kept in getFailures().
+public class ExcelExportBatch {
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final int MAX_CONCURRENCY = 16;
+
+    // Progress units of one export on the shared monitor
+    private static final int EXPORT_TICKS = 1000;
+
+    private final List<ExcelExport> exports;
+    private final int concurrency;
+    private final Map<ExcelExport, Exception> failures = new LinkedHashMap<>();
+
+    public ExcelExportBatch(List<ExcelExport> exports, int concurrency) {
+    	this.exports = List.copyOf(exports);
+    	this.concurrency = Math.max(1, Math.min(concurrency, MAX_CONCURRENCY));
+    }
+
+    // Throws CancellationException when the monitor is cancelled; exports that already finished keep their files
+    public void run(DBRProgressMonitor monitor) {
+    	monitor.beginTask("Exporting " + exports.size() + " data sources", exports.size() * EXPORT_TICKS);
+    	ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(exports.size(), 1)),
+    			Thread.ofVirtual().name("tabledef-export-", 0).factory());
+    	try {
+    		List<Future<?>> futures = new ArrayList<>(exports.size());
+    		for (ExcelExport export : exports) {
+    			String name = export.getDataSource().getContainer().getName();
+    			futures.add(executor.submit(() -> export.run(new ShareMonitor(monitor, name))));
+    		}
+    		for (int i = 0; i < futures.size(); i++) {
+    			try {
+    				futures.get(i).get();
+    			} catch (ExecutionException e) {
+    				if (!(e.getCause() instanceof CancellationException)) {
+    					failures.put(exports.get(i), e.getCause() instanceof Exception cause ? cause : e);
+    				}
+    			}
+    		}
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new CancellationException("Export was interrupted");
+    	} finally {
+    		executor.shutdownNow();
+    		monitor.done();
+    	}
+    	if (monitor.isCanceled()) {
+    		throw new CancellationException();
+    	}
+    }
+
+    public List<ExcelExport> getExports() {
+    	return exports;
+    }
+
+    public Map<ExcelExport, Exception> getFailures() {
+    	return failures;
+    }
+
+    // Maps the progress of one export onto its share of the combined monitor
+    private static final class ShareMonitor extends VoidProgressMonitor {
+    	private final DBRProgressMonitor parent;
+    	private final String prefix;
+    	private int totalWork;
+    	private int worked;
+    	private int reported;
+
+    	ShareMonitor(DBRProgressMonitor parent, String name) {
+    		this.parent = parent;
+    		this.prefix = name + ": ";
+    	}
+
+    	@Override
+    	public void beginTask(String name, int totalWork) {
+    		this.totalWork = totalWork;
+    		subTask(name);
+    	}
+
+    	@Override
+    	public void subTask(String name) {
+    		synchronized (parent) {
+    			parent.subTask(prefix + name);
+    		}
+    	}
+
+    	@Override
+    	public void worked(int work) {
+    		worked += work;
+    		if (totalWork > 0) {
+    			report((int) Math.min((long) worked * EXPORT_TICKS / totalWork, EXPORT_TICKS));
+    		}
+    	}
+
+    	@Override
+    	public void done() {
+    		report(EXPORT_TICKS);
+    	}
+
+    	@Override
+    	public boolean isCanceled() {
+    		return parent.isCanceled();
+    	}
+
+    	private void report(int ticks) {
+    		if (ticks > reported) {
+    			synchronized (parent) {
+    				parent.worked(ticks - reported);
+    			}
+    			reported = ticks;
+    		}
+    	}
+    }
+}
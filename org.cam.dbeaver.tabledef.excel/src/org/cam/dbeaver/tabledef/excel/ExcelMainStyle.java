@@ -1,172 +1,277 @@
 package org.cam.dbeaver.tabledef.excel;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
-import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.FillPatternType;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.HorizontalAlignment;
-import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.VerticalAlignment;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.ss.util.RegionUtil;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher;
-import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
-import org.jkiss.dbeaver.ext.cubrid.model.CubridTable;
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.Relationships;
+import org.cam.dbeaver.tabledef.excel.core.SchemaSnapshot;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.writer.CellFormat;
+import org.cam.dbeaver.tabledef.excel.writer.PoiWorkbookWriter;
+import org.cam.dbeaver.tabledef.excel.writer.PreviousWorkbook;
+import org.cam.dbeaver.tabledef.excel.writer.SheetWriter;
+import org.cam.dbeaver.tabledef.excel.writer.SpreadsheetMLWriter;
+import org.cam.dbeaver.tabledef.excel.writer.WorkbookWriter;
 
 public abstract class ExcelMainStyle {
-	private final Workbook workbook;
-    private final CellStyle centerStyle;
-    private final CellStyle leftStyle;
-    private final CellStyle rightStyle;
-    private final CellStyle boldStyle;
-    private CubridDataSource dataSource;
+	private final WorkbookWriter writer;
     private String dateString;
     private String filePath;
+    private ExportOptions options;
+    private ExportStats stats = new ExportStats();
+    private long startNanos;
 
-    public ExcelMainStyle(String filePath, CubridDataSource dataSource) {
+    public ExcelMainStyle(String filePath) {
+    	this(filePath, new ExportOptions());
+    }
+
+    public ExcelMainStyle(String filePath, ExportOptions options) {
     	this.filePath = filePath;
-    	this.dataSource = dataSource;
-        workbook = new XSSFWorkbook();
-
-        // Font
-        Font normalFont = workbook.createFont();
-        normalFont.setFontName("Arial");
-        normalFont.setFontHeightInPoints((short) 10);
-        normalFont.setBold(false);
-
-        // Center style
-        centerStyle = workbook.createCellStyle();
-        centerStyle.setWrapText(true);
-        centerStyle.setFont(normalFont);
-        centerStyle.setBorderTop(BorderStyle.THIN);
-        centerStyle.setBorderBottom(BorderStyle.THIN);
-        centerStyle.setBorderLeft(BorderStyle.THIN);
-        centerStyle.setBorderRight(BorderStyle.THIN);
-        centerStyle.setAlignment(HorizontalAlignment.CENTER);
-        centerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-
-        // Left-aligned style
-        leftStyle = workbook.createCellStyle();
-        leftStyle.cloneStyleFrom(centerStyle);
-        leftStyle.setAlignment(HorizontalAlignment.LEFT);
-
-        // Right-aligned style
-        rightStyle = workbook.createCellStyle();
-        rightStyle.cloneStyleFrom(centerStyle);
-        rightStyle.setAlignment(HorizontalAlignment.RIGHT);
-
-        // Bold style
-        boldStyle = workbook.createCellStyle();
-        boldStyle.cloneStyleFrom(centerStyle);
-        Font boldFont = workbook.createFont();
-        boldFont.setFontName("Arial");
-        boldFont.setFontHeightInPoints((short) 10);
-        boldFont.setBold(true);
-        boldStyle.setFont(boldFont);
-        boldStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        boldStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        
+    	this.options = options;
+    	writer = switch (options.getBackend()) {
+    		case DIRECT -> new SpreadsheetMLWriter(filePath);
+    		case STREAMING -> new PoiWorkbookWriter(filePath, true, options.getRowWindow());
+    		case XSSF -> new PoiWorkbookWriter(filePath, false, 0);
+    	};
         dateString = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"));
     }
 
-    public final void generateExcel() {
-    	generateTableNamesSheet();
-    	for (CubridTable table : TableDefinitionFetcher.getTables(dataSource)) {
-    		generateTableDetailSheets(table);
-    	}
-        saveWorkbook(filePath);
+    // Renders tables that are already in memory; exports from a live database go through ExcelExport
+    public final void generateExcel(SchemaSnapshot snapshot) {
+    	beginExport();
+    	stats.time(ExportStats.Phase.RENDER, () -> {
+    		generateTableNamesSheet(snapshot.getTables());
+    		for (TableDef table : snapshot.getTables()) {
+    			generateTableDetailSheets(table);
+    			stats.addTable();
+    		}
+    	});
+        saveWorkbook();
     }
     
-    protected void saveWorkbook(String filePath) {
-        try (FileOutputStream out = new FileOutputStream(filePath)) {
-            getWorkbook().write(out);
-            getWorkbook().close();
+    // Starts a new set of stats; each style instance writes a single workbook
+    final ExportStats beginExport() {
+    	stats = new ExportStats();
+    	startNanos = System.nanoTime();
+    	return stats;
+    }
+
+    final void reuseTableSheet(PreviousWorkbook source, TableDef header) {
+    	source.copySheet(header.getFullName(), createSheet(header.getFullName()));
+    }
+
+    // Drops an unsaved workbook without writing it
+    protected final void abort() {
+    	writer.abort();
+    }
+
+    protected void saveWorkbook() {
+        if (options.isStatsSheet()) {
+            generateStatsSheet();
+        }
+        long saveStart = System.nanoTime();
+        try {
+            writer.save();
         } catch (IOException e) {
             throw new RuntimeException("Failed to save Excel file: " + e.getMessage(), e);
+        } finally {
+            writer.dispose();
+            stats.addTime(ExportStats.Phase.SAVE, System.nanoTime() - saveStart);
+        }
+        try {
+            stats.addFileSize(Files.size(Path.of(filePath)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        stats.setTotalNanos(System.nanoTime() - startNanos);
+        if (options.isStatsFile()) {
+            try {
+                Files.writeString(Path.of(filePath + ".stats.json"), stats.toJson(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 
-    protected abstract void generateTableNamesSheet();
-    protected abstract void generateTableDetailSheets(CubridTable table);
+    // Written through the workbook writer directly so that it does not count itself.
+    // The save has not happened yet, so its time and the file size are not part of the sheet.
+    private void generateStatsSheet() {
+    	SheetWriter sheet = writer.createSheet("Export Stats", true);
+    	sheet.setColumnWidths(30, 20);
+    	int rowIdx = 0;
+    	sheet.addCell(rowIdx, 0, "Metric", CellFormat.BOLD);
+    	sheet.addCell(rowIdx++, 1, "Value", CellFormat.BOLD);
+    	sheet.addCell(rowIdx, 0, "Elapsed before save (ms)", CellFormat.LEFT);
+    	sheet.addCell(rowIdx++, 1, String.valueOf((System.nanoTime() - startNanos) / 1_000_000), CellFormat.RIGHT);
+    	for (ExportStats.Phase phase : ExportStats.Phase.values()) {
+    		if (phase != ExportStats.Phase.SAVE) {
+    			sheet.addCell(rowIdx, 0, phase.getLabel() + " (ms)", CellFormat.LEFT);
+    			sheet.addCell(rowIdx++, 1, String.valueOf(stats.getPhaseMillis(phase)), CellFormat.RIGHT);
+    		}
+    	}
+    	String[][] counters = {
+    			{ "Tables", String.valueOf(stats.getTables()) },
+    			{ "Queries", String.valueOf(stats.getQueries()) },
+    			{ "Rows read", String.valueOf(stats.getRowsRead()) },
+    			{ "Cells", String.valueOf(stats.getCells()) },
+    			{ "Merges", String.valueOf(stats.getMerges()) }
+    	};
+    	for (String[] counter : counters) {
+    		sheet.addCell(rowIdx, 0, counter[0], CellFormat.LEFT);
+    		sheet.addCell(rowIdx++, 1, counter[1], CellFormat.RIGHT);
+    	}
+    }
+
+    // Every foreign key with its actions, then the fan-out and fan-in of each table that has a link
+    protected void generateRelationshipsSheet(Relationships relationships) {
+    	SheetWriter sheet = createSheet("Relationships");
+    	applySheetDimensions(sheet, 6, 30, 40, 30, 40, 30, 14, 14);
+    	String[] headers = { "No", "Foreign key", "Table", "Columns", "Referenced table", "Referenced columns",
+    			"On delete", "On update" };
+    	for (int colIdx = 0; colIdx < headers.length; colIdx++) {
+    		addCell(sheet, 0, colIdx, headers[colIdx], getBoldStyle());
+    	}
+    	int rowIdx = 1;
+    	for (Relationships.ForeignKey foreignKey : relationships.getForeignKeys()) {
+    		addCell(sheet, rowIdx, 0, rowIdx, getCenterStyle());
+    		addCell(sheet, rowIdx, 1, foreignKey.getName(), getLeftStyle());
+    		addCell(sheet, rowIdx, 2, foreignKey.getTableName(), getLeftStyle());
+    		addCell(sheet, rowIdx, 3, String.join(", ", foreignKey.getColumns()), getLeftStyle());
+    		addCell(sheet, rowIdx, 4, foreignKey.getReferencedTableName(), getLeftStyle());
+    		addCell(sheet, rowIdx, 5, String.join(", ", foreignKey.getReferencedColumns()), getLeftStyle());
+    		addCell(sheet, rowIdx, 6, foreignKey.getOnDelete(), getCenterStyle());
+    		addCell(sheet, rowIdx, 7, foreignKey.getOnUpdate(), getCenterStyle());
+    		rowIdx++;
+    	}
+
+    	SheetWriter fanSheet = createSheet("Fan-in Fan-out");
+    	applySheetDimensions(fanSheet, 6, 40, 12, 12);
+    	String[] fanHeaders = { "No", "Table", "Fan-out", "Fan-in" };
+    	for (int colIdx = 0; colIdx < fanHeaders.length; colIdx++) {
+    		addCell(fanSheet, 0, colIdx, fanHeaders[colIdx], getBoldStyle());
+    	}
+    	rowIdx = 1;
+    	for (String tableName : relationships.getLinkedTables()) {
+    		addCell(fanSheet, rowIdx, 0, rowIdx, getCenterStyle());
+    		addCell(fanSheet, rowIdx, 1, tableName, getLeftStyle());
+    		addCell(fanSheet, rowIdx, 2, relationships.getFanOut(tableName), getRightStyle());
+    		addCell(fanSheet, rowIdx, 3, relationships.getFanIn(tableName), getRightStyle());
+    		rowIdx++;
+    	}
+    }
+
+    // Sheets of a previous export are only reused when it was written with the same layout and DDL source
+    protected String getLayoutId() {
+    	return getClass().getName() + ";ddl=" + options.getDdlSource();
+    }
+
+    // Same layout and options, writing another file; used for the workbooks of a split export
+    protected abstract ExcelMainStyle createPartStyle(String filePath);
+
+    protected abstract void generateTableNamesSheet(List<TableDef> tables);
+    protected abstract void generateTableDetailSheets(TableDef table);
+
+    public ExportOptions getOptions() {
+    	return options;
+    }
 
-    public CubridDataSource getDataSource() {
-    	return dataSource;
+    public ExportStats getStats() {
+    	return stats;
     }
 
-    public CellStyle getCenterStyle() {
-        return centerStyle;
+    public String getFilePath() {
+    	return filePath;
     }
 
-    public CellStyle getLeftStyle() {
-        return leftStyle;
+    public CellFormat getCenterStyle() {
+        return CellFormat.CENTER;
     }
 
-    public CellStyle getRightStyle() {
-        return rightStyle;
+    public CellFormat getLeftStyle() {
+        return CellFormat.LEFT;
     }
 
-    public CellStyle getBoldStyle() {
-        return boldStyle;
+    public CellFormat getRightStyle() {
+        return CellFormat.RIGHT;
     }
 
-    public Workbook getWorkbook() {
-        return workbook;
-    }    
+    public CellFormat getBoldStyle() {
+        return CellFormat.BOLD;
+    }
+
+    public SheetWriter createSheet(String name) {
+        return new CountingSheetWriter(writer.createSheet(name));
+    }
 
     public String getDateString() {
     	return dateString;
     }
     
-    public void applySheetDimensions(Sheet sheet, int... widths) {
-    	sheet.createRow(0).setHeightInPoints(24);
+    public void applySheetDimensions(SheetWriter sheet, int... widths) {
+    	sheet.setRowHeightInPoints(0, 24);
     	if (widths != null && widths.length > 0) {
-            for (int i = 0; i < widths.length; i++) {
-                sheet.setColumnWidth(i, widths[i] * 256);
-            }
+            sheet.setColumnWidths(widths);
         }
     }
 
-    public void addCell(Sheet sheet, int rowIdx, int colIdx, String content, CellStyle style) {
-        Row row = sheet.getRow(rowIdx);
-        if (row == null) {
-        	row = sheet.createRow(rowIdx);
-        }
-        Cell cell = row.createCell(colIdx);
-        cell.setCellValue(content);
-        cell.setCellStyle(style);
+    public void addCell(SheetWriter sheet, int rowIdx, int colIdx, String content, CellFormat style) {
+        sheet.addCell(rowIdx, colIdx, content, style);
     }
 
-    public void addCell(Sheet sheet, int rowIdx, int colIdx, long value, CellStyle style) {
-        Row row = sheet.getRow(rowIdx);
-        if (row == null) {
-        	row = sheet.createRow(rowIdx);
-        }
-        Cell cell = row.createCell(colIdx);
-        if (value != 0) {
-            cell.setCellValue(value);
-        } else {
-        	cell.setBlank();
-        }
-        cell.setCellStyle(style);
+    public void addCell(SheetWriter sheet, int rowIdx, int colIdx, long value, CellFormat style) {
+        sheet.addCell(rowIdx, colIdx, value, style);
+    }
+
+    public void mergeCell(SheetWriter sheet, int firstRow, int lastRow, int firstCol, int lastCol) {
+        sheet.mergeCells(firstRow, lastRow, firstCol, lastCol);
     }
 
-    public void mergeCell(Sheet sheet, int firstRow, int lastRow, int firstCol, int lastCol) {
-    	CellRangeAddress region = new CellRangeAddress(firstRow, lastRow, firstCol, lastCol);
-        sheet.addMergedRegion(region);
+    // Counts what the styles write into the export stats
+    private class CountingSheetWriter implements SheetWriter {
+    	private final SheetWriter target;
 
-        RegionUtil.setBorderTop(BorderStyle.THIN, region, sheet);
-        RegionUtil.setBorderBottom(BorderStyle.THIN, region, sheet);
-        RegionUtil.setBorderLeft(BorderStyle.THIN, region, sheet);
-        RegionUtil.setBorderRight(BorderStyle.THIN, region, sheet);
+    	CountingSheetWriter(SheetWriter target) {
+    		this.target = target;
+    	}
+
+    	@Override
+    	public void setColumnWidths(int... widths) {
+    		target.setColumnWidths(widths);
+    	}
+
+    	@Override
+    	public void setRowHeightInPoints(int rowIdx, float height) {
+    		target.setRowHeightInPoints(rowIdx, height);
+    	}
+
+    	@Override
+    	public float getDefaultRowHeightInPoints() {
+    		return target.getDefaultRowHeightInPoints();
+    	}
+
+    	@Override
+    	public void addCell(int rowIdx, int colIdx, String content, CellFormat format) {
+    		target.addCell(rowIdx, colIdx, content, format);
+    		stats.addCells(1);
+    	}
+
+    	@Override
+    	public void addCell(int rowIdx, int colIdx, long value, CellFormat format) {
+    		target.addCell(rowIdx, colIdx, value, format);
+    		stats.addCells(1);
+    	}
+
+    	@Override
+    	public void mergeCells(int firstRow, int lastRow, int firstCol, int lastCol) {
+    		target.mergeCells(firstRow, lastRow, firstCol, lastCol);
+    		stats.addMerges(1);
+    	}
     }
 }
@@ -0,0 +1,74 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.Relationships;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+import org.cam.dbeaver.tabledef.excel.sink.ExportSink;
+
+// Drives a workbook style from sink events. The styles lay out a whole table at once,
+// so the column, index and DDL events are skipped and the table is rendered at endTable.
+// The style's export must have begun; ExcelExport does that before it creates the sink.
+public class ExcelSink implements ExportSink {
+    private final ExcelMainStyle style;
+    private TableDef table;
+
+    public ExcelSink(ExcelMainStyle style) {
+    	this.style = style;
+    }
+
+    @Override
+    public void tableList(List<TableDef> tables) {
+    	style.generateTableNamesSheet(tables);
+    }
+
+    @Override
+    public void beginTable(TableDef table) {
+    	this.table = table;
+    }
+
+    @Override
+    public void column(int position, ColumnDef column) {
+    }
+
+    @Override
+    public void index(IndexKey index) {
+    }
+
+    @Override
+    public void ddl(String ddl) {
+    }
+
+    @Override
+    public void endTable() {
+    	style.generateTableDetailSheets(table);
+    	table = null;
+    }
+
+    // Not a sink event; only the workbook has a place for the foreign keys
+    public void relationships(Relationships relationships) {
+    	style.generateRelationshipsSheet(relationships);
+    }
+
+    @Override
+    public void finish() {
+    	style.saveWorkbook();
+    }
+
+    @Override
+    public void abort() {
+    	style.abort();
+    }
+
+    @Override
+    public Path getFile() {
+    	return Path.of(style.getFilePath());
+    }
+
+    public ExcelMainStyle getStyle() {
+    	return style;
+    }
+}
@@ -0,0 +1,43 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
+import org.cam.dbeaver.tabledef.excel.template.SheetTemplate;
+
+public class ExcelTemplateStyle extends ExcelMainStyle {
+    private final ExcelTemplate template;
+
+    public ExcelTemplateStyle(String filePath, ExportOptions options, ExcelTemplate template) {
+    	super(filePath, options);
+    	this.template = template;
+    }
+
+    public ExcelTemplate getTemplate() {
+    	return template;
+    }
+
+    @Override
+    protected String getLayoutId() {
+    	return "template:" + template.getName() + ";sha256=" + template.getDigest() + ";ddl="
+    			+ getOptions().getDdlSource();
+    }
+
+    @Override
+    protected ExcelMainStyle createPartStyle(String filePath) {
+    	return new ExcelTemplateStyle(filePath, getOptions(), template);
+    }
+
+    @Override
+    public void generateTableNamesSheet(List<TableDef> tables) {
+    	SheetTemplate tableList = template.getTableList();
+    	tableList.renderTableList(createSheet(tableList.getName()), tables, getDateString());
+    }
+
+    @Override
+    public void generateTableDetailSheets(TableDef table) {
+    	template.getTableDetail().renderTable(createSheet(table.getFullName()), table, getDateString());
+    }
+}
@@ -0,0 +1,209 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportPipeline;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.SchemaDiff;
+import org.cam.dbeaver.tabledef.excel.core.SnapshotCache;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.writer.SheetWriter;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// Compares two sets of table definitions, each read from a live data source or from a snapshot file,
+// and writes the differences into a workbook through the cell styles of a document style.
+// The style's table sheets are not used; the workbook only holds a summary and the list of changes.
+public class SchemaCompare {
+    // One side of a compare
+    public interface Source {
+    	String getName();
+    	// Tables that could not be read go into 'unread', so that they are not taken for dropped ones
+    	List<TableDef> load(DBRProgressMonitor monitor, ExportStats stats, List<String> errors, Set<String> unread);
+    }
+
+    private final Source before;
+    private final Source after;
+    private final ExcelMainStyle style;
+    private Path snapshotFile;
+    private SchemaDiff diff;
+    private final List<String> errors = new ArrayList<>();
+    // One set per side: a table read on one side must not clear its failure on the other
+    private final Set<String> unreadBefore = new HashSet<>();
+    private final Set<String> unreadAfter = new HashSet<>();
+
+    public SchemaCompare(Source before, Source after, ExcelMainStyle style) {
+    	this.before = before;
+    	this.after = after;
+    	this.style = style;
+    }
+
+    public static Source live(CubridDataSource dataSource, ExportOptions options) {
+    	return new Source() {
+    		@Override
+    		public String getName() {
+    			return dataSource.getContainer().getName();
+    		}
+
+    		@Override
+    		public List<TableDef> load(DBRProgressMonitor monitor, ExportStats stats, List<String> errors,
+    				Set<String> unread) {
+    			List<TableDef> tables = new ArrayList<>();
+    			errors.addAll(ExportPipeline.run(monitor, dataSource, options, new ExportPipeline.Renderer() {
+    				@Override
+    				public void renderTableList(List<TableDef> headers) {
+    					headers.forEach(header -> unread.add(header.getFullName()));
+    				}
+
+    				@Override
+    				public void renderTable(TableDef table) {
+    					unread.remove(table.getFullName());
+    					tables.add(table);
+    				}
+    			}, stats));
+    			return tables;
+    		}
+    	};
+    }
+
+    // A file written through setSnapshotFile, or a snapshot from the metadata cache directory
+    public static Source snapshot(Path file) {
+    	return new Source() {
+    		@Override
+    		public String getName() {
+    			return file.getFileName().toString();
+    		}
+
+    		@Override
+    		public List<TableDef> load(DBRProgressMonitor monitor, ExportStats stats, List<String> errors,
+    				Set<String> unread) {
+    			monitor.subTask("Reading " + file.getFileName());
+    			long start = System.nanoTime();
+    			try {
+    				return SnapshotCache.read(file);
+    			} catch (IOException e) {
+    				throw new RuntimeException("Failed to read snapshot " + file + ": " + e.getMessage(), e);
+    			} finally {
+    				stats.addTime(ExportStats.Phase.SNAPSHOT, System.nanoTime() - start);
+    			}
+    		}
+    	};
+    }
+
+    // Also writes the 'after' side to this file, the 'before' of the next compare. Skipped when a table of that side could not be read.
+    public void setSnapshotFile(Path snapshotFile) {
+    	this.snapshotFile = snapshotFile;
+    }
+
+    // Throws CancellationException when the monitor is cancelled; the partial workbook is discarded
+    public void run(DBRProgressMonitor monitor) {
+    	ExportStats stats = style.beginExport();
+    	try {
+    		List<TableDef> beforeTables = before.load(monitor, stats, errors, unreadBefore);
+    		List<TableDef> afterTables = after.load(monitor, stats, errors, unreadAfter);
+    		if (snapshotFile != null && unreadAfter.isEmpty()) {
+    			try {
+    				SnapshotCache.write(snapshotFile, afterTables);
+    			} catch (IOException e) {
+    				throw new RuntimeException("Failed to write snapshot " + snapshotFile + ": " + e.getMessage(), e);
+    			}
+    		}
+    		monitor.subTask("Comparing " + beforeTables.size() + " and " + afterTables.size() + " tables");
+    		Set<String> unread = new HashSet<>(unreadBefore);
+    		unread.addAll(unreadAfter);
+    		diff = SchemaDiff.compare(withoutUnread(beforeTables, unread), withoutUnread(afterTables, unread));
+    		stats.time(ExportStats.Phase.RENDER, () -> {
+    			generateSummarySheet();
+    			generateChangesSheet();
+    		});
+    	} catch (RuntimeException e) {
+    		style.abort();
+    		throw e;
+    	}
+    	style.saveWorkbook();
+    }
+
+    private static List<TableDef> withoutUnread(List<TableDef> tables, Set<String> unread) {
+    	if (unread.isEmpty()) {
+    		return tables;
+    	}
+    	return tables.stream().filter(table -> !unread.contains(table.getFullName())).toList();
+    }
+
+    private void generateSummarySheet() {
+    	SheetWriter sheet = style.createSheet("Summary");
+    	style.applySheetDimensions(sheet, 20, 40, 12, 12);
+    	int rowIdx = 0;
+    	String[][] sources = {
+    			{ "Before", before.getName() + " (" + diff.getTablesBefore() + " tables)" },
+    			{ "After", after.getName() + " (" + diff.getTablesAfter() + " tables)" },
+    			{ "Date", style.getDateString() }
+    	};
+    	for (String[] source : sources) {
+    		style.addCell(sheet, rowIdx, 0, source[0], style.getBoldStyle());
+    		style.addCell(sheet, rowIdx++, 1, source[1], style.getLeftStyle());
+    	}
+    	rowIdx++;
+
+    	style.addCell(sheet, rowIdx, 0, "Object", style.getBoldStyle());
+    	int colIdx = 1;
+    	for (SchemaDiff.Kind kind : SchemaDiff.Kind.values()) {
+    		style.addCell(sheet, rowIdx, colIdx++, kind.getLabel(), style.getBoldStyle());
+    	}
+    	rowIdx++;
+    	for (SchemaDiff.ObjectType type : SchemaDiff.ObjectType.values()) {
+    		style.addCell(sheet, rowIdx, 0, type.getLabel(), style.getLeftStyle());
+    		colIdx = 1;
+    		for (SchemaDiff.Kind kind : SchemaDiff.Kind.values()) {
+    			// A table counts as altered when anything in it changed, not only its own comment
+    			long count = type == SchemaDiff.ObjectType.TABLE && kind == SchemaDiff.Kind.ALTERED
+    					? diff.getAlteredTables() : diff.getCount(type, kind);
+    			style.addCell(sheet, rowIdx, colIdx++, count, style.getRightStyle());
+    		}
+    		rowIdx++;
+    	}
+    }
+
+    private void generateChangesSheet() {
+    	SheetWriter sheet = style.createSheet("Changes");
+    	style.applySheetDimensions(sheet, 6, 10, 10, 40, 30, 14, 40, 40);
+    	String[] headers = { "No", "Change", "Object", "Table", "Name", "Attribute", "Before", "After" };
+    	for (int colIdx = 0; colIdx < headers.length; colIdx++) {
+    		style.addCell(sheet, 0, colIdx, headers[colIdx], style.getBoldStyle());
+    	}
+    	int rowIdx = 1;
+    	for (SchemaDiff.Change change : diff.getChanges()) {
+    		style.addCell(sheet, rowIdx, 0, rowIdx, style.getCenterStyle());
+    		style.addCell(sheet, rowIdx, 1, change.getKind().getLabel(), style.getCenterStyle());
+    		style.addCell(sheet, rowIdx, 2, change.getObjectType().getLabel(), style.getCenterStyle());
+    		style.addCell(sheet, rowIdx, 3, change.getTableName(), style.getLeftStyle());
+    		style.addCell(sheet, rowIdx, 4, change.getObjectName(), style.getLeftStyle());
+    		style.addCell(sheet, rowIdx, 5, change.getAttribute(), style.getLeftStyle());
+    		style.addCell(sheet, rowIdx, 6, change.getBefore(), style.getLeftStyle());
+    		style.addCell(sheet, rowIdx, 7, change.getAfter(), style.getLeftStyle());
+    		rowIdx++;
+    	}
+    	if (diff.isEmpty()) {
+    		style.addCell(sheet, rowIdx, 0, "No differences", style.getLeftStyle());
+    	}
+    }
+
+    public SchemaDiff getDiff() {
+    	return diff;
+    }
+
+    // Tables that could not be read from a live source; they are left out of the compare on both sides
+    public List<String> getErrors() {
+    	return errors;
+    }
+
+    public ExportStats getStats() {
+    	return style.getStats();
+    }
+}
@@ -0,0 +1,107 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportPipeline;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.sink.CsvSink;
+import org.cam.dbeaver.tabledef.excel.sink.ExportSink;
+import org.cam.dbeaver.tabledef.excel.sink.JsonLinesSink;
+import org.cam.dbeaver.tabledef.excel.sink.MarkdownSink;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// Exports the tables of a live data source into a sink. Every table is handed over as soon as it is
+// fetched, so with the text sinks memory stays flat however large the catalog is.
+public class SinkExport {
+    private final CubridDataSource dataSource;
+    private final ExportOptions options;
+    private final ExportSink sink;
+    private final ExportStats stats = new ExportStats();
+    private List<String> errors = List.of();
+
+    public SinkExport(CubridDataSource dataSource, ExportOptions options, ExportSink sink) {
+    	this.dataSource = dataSource;
+    	this.options = options;
+    	this.sink = sink;
+    }
+
+    // The writer for a text format; Excel goes through a style, see ExcelExport and ExcelSink
+    public static ExportSink createSink(ExportOptions.Format format, String filePath) {
+    	return switch (format) {
+    		case CSV -> new CsvSink(filePath);
+    		case JSON_LINES -> new JsonLinesSink(filePath);
+    		case MARKDOWN -> new MarkdownSink(filePath);
+    		case EXCEL -> throw new IllegalArgumentException("Excel output needs a document style");
+    	};
+    }
+
+    // Throws CancellationException when the monitor is cancelled; the partial output is removed
+    public void run(DBRProgressMonitor monitor) {
+    	long startNanos = System.nanoTime();
+    	try {
+    		errors = ExportPipeline.run(monitor, dataSource, options, new ExportPipeline.Renderer() {
+    			@Override
+    			public void renderTableList(List<TableDef> tables) {
+    				write(() -> sink.tableList(tables));
+    			}
+
+    			@Override
+    			public void renderTable(TableDef table) {
+    				write(() -> ExportSink.write(sink, table));
+    			}
+    		}, stats);
+    		stats.time(ExportStats.Phase.SAVE, () -> write(sink::finish));
+    	} catch (RuntimeException e) {
+    		sink.abort();
+    		throw e;
+    	}
+
+    	Path file = sink.getFile();
+    	if (file != null) {
+    		try {
+    			stats.addFileSize(Files.size(file));
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    	}
+    	stats.setTotalNanos(System.nanoTime() - startNanos);
+    	if (file != null && options.isStatsFile()) {
+    		try {
+    			Files.writeString(Path.of(file + ".stats.json"), stats.toJson(), StandardCharsets.UTF_8);
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    	}
+    }
+
+    private void write(SinkWork work) {
+    	try {
+    		work.run();
+    	} catch (IOException e) {
+    		throw new RuntimeException("Failed to write " + sink.getFile() + ": " + e.getMessage(), e);
+    	}
+    }
+
+    public ExportSink getSink() {
+    	return sink;
+    }
+
+    public List<String> getErrors() {
+    	return errors;
+    }
+
+    public ExportStats getStats() {
+    	return stats;
+    }
+
+    private interface SinkWork {
+    	void run() throws IOException;
+    }
+}
@@ -0,0 +1,232 @@
+package org.cam.dbeaver.tabledef.excel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportPipeline;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.Relationships;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher;
+import org.cam.dbeaver.tabledef.excel.writer.CellFormat;
+import org.cam.dbeaver.tabledef.excel.writer.SheetWriter;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// Renders a split export. The tables are grouped into parts, one per owner or per N tables, and every part
+// goes into its own workbook next to the index one: <name>_<owner>.xlsx or <name>_<n>.xlsx. A part is
+// written on its own thread as soon as all of its tables arrived, while the pipeline keeps fetching.
+// The index workbook gets the full table list and a sheet telling which workbook holds which tables.
+final class SplitRenderer implements ExportPipeline.Renderer {
+    private static final long CANCEL_POLL_MILLIS = 200;
+
+    private final ExcelMainStyle index;
+    private final ExportStats stats;
+    private final DBRProgressMonitor monitor;
+    private final ExecutorService executor;
+    // Parts queued or being written; the rendering thread waits when all are taken, which bounds
+    // the number of fetched tables held in memory
+    private final Semaphore slots;
+    private final List<Part> parts = new ArrayList<>();
+    private final Map<String, Part> partsByTable = new HashMap<>();
+    // Lower-cased part file names, so that no two parts write the same file on a case-insensitive file system
+    private final Set<String> fileNames = new HashSet<>();
+    private final List<Future<?>> futures = new ArrayList<>();
+    private Part current;
+
+    SplitRenderer(ExcelMainStyle index, ExportStats stats, DBRProgressMonitor monitor) {
+    	this.index = index;
+    	this.stats = stats;
+    	this.monitor = monitor;
+    	int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+    	this.executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("tabledef-workbook-", 0).factory());
+    	this.slots = new Semaphore(workers * 2);
+    }
+
+    @Override
+    public void renderTableList(List<TableDef> tables) {
+    	ExportOptions options = index.getOptions();
+    	String basePath = index.getFilePath().replaceFirst("(?i)\\.xlsx$", "");
+    	Part part = null;
+    	boolean byOwner = options.getSplit() == ExportOptions.Split.OWNER;
+    	for (TableDef table : tables) {
+    		if (part == null || (byOwner ? !part.key.equals(table.getSchemaName())
+    				: part.headers.size() >= options.getTablesPerWorkbook())) {
+    			String key = byOwner ? table.getSchemaName() : String.format(Locale.ROOT, "%03d", parts.size() + 1);
+    			part = new Part(key, basePath + "_" + toFileName(key) + ".xlsx");
+    			parts.add(part);
+    		}
+    		part.headers.add(table);
+    		partsByTable.put(table.getFullName(), part);
+    	}
+    	index.generateTableNamesSheet(tables);
+    }
+
+    @Override
+    public void renderTable(TableDef table) {
+    	Part part = partsByTable.get(table.getFullName());
+    	if (current != null && current != part) {
+    		submit(current);
+    	}
+    	current = part;
+    	part.tables.add(table);
+    }
+
+    // Goes into the index workbook, where all tables are listed
+    @Override
+    public void renderRelationships(Relationships relationships) {
+    	index.generateRelationshipsSheet(relationships);
+    }
+
+    // Writes the parts that are still pending, waits for all of them and adds the workbook sheet to the index
+    void finish() {
+    	for (Part part : parts) {
+    		if (!part.submitted) {
+    			submit(part);
+    		}
+    	}
+    	monitor.subTask("Writing " + parts.size() + " workbooks");
+    	RuntimeException failure = null;
+    	for (Future<?> future : futures) {
+    		try {
+    			await(future);
+    		} catch (ExecutionException e) {
+    			if (e.getCause() instanceof CancellationException cancellation) {
+    				throw cancellation;
+    			}
+    			if (failure == null) {
+    				failure = new RuntimeException("Failed to write workbook: " + e.getCause().getMessage(), e.getCause());
+    			}
+    		}
+    	}
+    	executor.shutdown();
+    	if (failure != null) {
+    		throw failure;
+    	}
+    	for (Part part : parts) {
+    		stats.addWorkbook(part.stats);
+    	}
+    	generateWorkbookSheet();
+    }
+
+    // Workbooks that were completely written before the cancel are kept, the others are discarded
+    void abort() {
+    	executor.shutdownNow();
+    	try {
+    		executor.awaitTermination(10, TimeUnit.SECONDS);
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
+    }
+
+    private void submit(Part part) {
+    	part.submitted = true;
+    	try {
+    		while (!slots.tryAcquire(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+    			TableDefinitionFetcher.checkCanceled(monitor);
+    		}
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new CancellationException("Export was interrupted");
+    	}
+    	futures.add(executor.submit(() -> {
+    		try {
+    			write(part);
+    		} finally {
+    			slots.release();
+    		}
+    	}));
+    }
+
+    private void write(Part part) {
+    	TableDefinitionFetcher.checkCanceled(monitor);
+    	ExcelMainStyle style = index.createPartStyle(part.filePath);
+    	ExportStats partStats = style.beginExport();
+    	try {
+    		partStats.time(ExportStats.Phase.RENDER, () -> {
+    			style.generateTableNamesSheet(part.headers);
+    			for (TableDef table : part.tables) {
+    				TableDefinitionFetcher.checkCanceled(monitor);
+    				style.generateTableDetailSheets(table);
+    			}
+    		});
+    	} catch (RuntimeException e) {
+    		style.abort();
+    		throw e;
+    	}
+    	style.saveWorkbook();
+    	part.stats = style.getStats();
+    	part.tables.clear();
+    }
+
+    private void generateWorkbookSheet() {
+    	SheetWriter sheet = index.createSheet("Workbooks");
+    	index.applySheetDimensions(sheet, 6, 50, 30, 30, 10);
+    	String[] headers = { "No", "Workbook", "First table", "Last table", "Tables" };
+    	for (int colIdx = 0; colIdx < headers.length; colIdx++) {
+    		index.addCell(sheet, 0, colIdx, headers[colIdx], CellFormat.BOLD);
+    	}
+    	int rowIdx = 1;
+    	for (Part part : parts) {
+    		index.addCell(sheet, rowIdx, 0, rowIdx, CellFormat.CENTER);
+    		index.addCell(sheet, rowIdx, 1, new File(part.filePath).getName(), CellFormat.LEFT);
+    		index.addCell(sheet, rowIdx, 2, part.headers.get(0).getFullName(), CellFormat.LEFT);
+    		index.addCell(sheet, rowIdx, 3, part.headers.get(part.headers.size() - 1).getFullName(), CellFormat.LEFT);
+    		index.addCell(sheet, rowIdx, 4, part.headers.size(), CellFormat.RIGHT);
+    		rowIdx++;
+    	}
+    }
+
+    private void await(Future<?> future) throws ExecutionException {
+    	while (true) {
+    		try {
+    			future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    			return;
+    		} catch (TimeoutException e) {
+    			TableDefinitionFetcher.checkCanceled(monitor);
+    		} catch (InterruptedException e) {
+    			Thread.currentThread().interrupt();
+    			throw new CancellationException("Export was interrupted");
+    		}
+    	}
+    }
+
+    // Owner names can hold characters that are not allowed in file names. Owners that come out the same,
+    // like "A B" and "A_B", get a number appended.
+    private String toFileName(String key) {
+    	String base = key.replaceAll("[^A-Za-z0-9._-]", "_");
+    	String name = base;
+    	for (int n = 2; !fileNames.add(name.toLowerCase(Locale.ROOT)); n++) {
+    		name = base + "_" + n;
+    	}
+    	return name;
+    }
+
+    private static final class Part {
+    	final String key;
+    	final String filePath;
+    	final List<TableDef> headers = new ArrayList<>();
+    	final List<TableDef> tables = new ArrayList<>();
+    	boolean submitted;
+    	ExportStats stats;
+
+    	Part(String key, String filePath) {
+    		this.key = key;
+    		this.filePath = filePath;
+    	}
+    }
+}
@@ -0,0 +1,289 @@
+package org.cam.dbeaver.tabledef.excel.app;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.cam.dbeaver.tabledef.excel.ExcelExport;
+import org.cam.dbeaver.tabledef.excel.ExcelGenericStyle;
+import org.cam.dbeaver.tabledef.excel.ExcelMainStyle;
+import org.cam.dbeaver.tabledef.excel.ExcelSimpleStyle;
+import org.cam.dbeaver.tabledef.excel.ExcelTemplateStyle;
+import org.cam.dbeaver.tabledef.excel.SchemaCompare;
+import org.cam.dbeaver.tabledef.excel.SinkExport;
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.TableFilter;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.app.DBPWorkspace;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+// Runs the export without the workbench, e.g. from a nightly job:
+//   dbeaver -nosplash -application org.cam.dbeaver.tabledef.excel.batchExport
+//       -connection <name or id> -output <dir> [options] -vmargs -Xmx4g
+// The connection is looked up in the DBeaver workspace, so it must have been configured there once.
+public class ExcelExportApplication implements IApplication {
+    private static final Integer EXIT_FAILED = 1;
+    private static final Integer EXIT_TABLE_ERRORS = 2;
+
+    private static final Set<String> FLAGS = Set.of("incremental", "relationships", "statsSheet", "statsFile");
+    private static final Set<String> VALUES = Set.of("connection", "project", "output", "name", "style", "backend",
+    		"rowWindow", "parallelism", "ddl", "owners", "include", "exclude", "tables", "split", "tablesPerWorkbook", "format", "cacheTtl", "cacheDir",
+    		"compareWith", "saveSnapshot");
+
+    private static final String USAGE = "Arguments:\n"
+    		+ "  -connection <name or id>   data source from the DBeaver workspace (required)\n"
+    		+ "  -output <dir>              output directory (required)\n"
+    		+ "  -project <name>            project holding the connection, the active project by default\n"
+    		+ "  -name <file name>          without extension, tablelist_<database>_<date> by default\n"
+    		+ "  -format <format>           EXCEL (default), CSV, JSON_LINES or MARKDOWN\n"
+    		+ "  -style <style>             simple, generic or the path of a template file\n"
+    		+ "  -backend <writer>          XSSF, STREAMING or DIRECT\n"
+    		+ "  -rowWindow <rows>          rows kept in memory by the STREAMING writer\n"
+    		+ "  -parallelism <workers>     tables fetched at the same time\n"
+    		+ "  -ddl <source>              DATABASE (default), SYNTHESIZED or COMPARE\n"
+    		+ "  -owners <a,b>              only tables of these owners\n"
+    		+ "  -include <patterns>        only tables matching one of these LIKE patterns, e.g. T_%,CODE%\n"
+    		+ "  -exclude <patterns>        skip tables matching one of these LIKE patterns\n"
+    		+ "  -tables <owner.table,...>  only these tables\n"
+    		+ "  -split <mode>              NONE, OWNER (one workbook per owner) or TABLES\n"
+    		+ "  -tablesPerWorkbook <n>     tables per workbook with -split TABLES\n"
+    		+ "  -cacheTtl <minutes>        reuse table definitions read within this time, or later if unchanged\n"
+    		+ "  -cacheDir <dir>            snapshot directory, ~/.tabledef-excel/snapshots by default\n"
+    		+ "  -compareWith <source>      write <name>_diff.xlsx with the changes since a snapshot file or another connection\n"
+    		+ "  -saveSnapshot <file>       with -compareWith, save the tables read now for the next compare\n"
+    		+ "  -incremental               only regenerate tables changed since the last export\n"
+    		+ "  -relationships             add sheets with the foreign keys and the fan-in/fan-out of each table\n"
+    		+ "  -statsSheet                add a hidden sheet with the export stats\n"
+    		+ "  -statsFile                 write the export stats to <file>.stats.json";
+
+    @Override
+    public Object start(IApplicationContext context) {
+    	String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+    	Map<String, String> arguments;
+    	ExportOptions options;
+    	try {
+    		arguments = parseArguments(args == null ? new String[0] : args);
+    		options = createOptions(arguments);
+    	} catch (IllegalArgumentException e) {
+    		System.err.println(e.getMessage());
+    		System.err.println(USAGE);
+    		return EXIT_FAILED;
+    	}
+
+    	DBRProgressMonitor monitor = new VoidProgressMonitor() {
+    		@Override
+    		public void subTask(String name) {
+    			System.out.println(name);
+    		}
+    	};
+    	DBPDataSourceContainer container = null;
+    	boolean connected = false;
+    	try {
+    		container = findDataSource(arguments.get("project"), arguments.get("connection"));
+    		if (!container.isConnected()) {
+    			System.out.println("Connecting to " + container.getName());
+    			container.connect(monitor, true, true);
+    			connected = true;
+    		}
+    		if (!(container.getDataSource() instanceof CubridDataSource dataSource)) {
+    			throw new IllegalArgumentException("'" + container.getName() + "' is not a CUBRID connection");
+    		}
+
+    		Path outputDir = Path.of(arguments.get("output"));
+    		Files.createDirectories(outputDir);
+    		String fileName = arguments.getOrDefault("name", ExcelExport.getDefaultFileName(dataSource));
+    		if (arguments.containsKey("compareWith")) {
+    			return compare(monitor, dataSource, arguments, options, outputDir.resolve(fileName + "_diff.xlsx").toString());
+    		}
+    		ExportOptions.Format format = ExportOptions.Format.valueOf(
+    				arguments.getOrDefault("format", "EXCEL").toUpperCase(Locale.ROOT));
+    		String fullPath = outputDir.resolve(fileName + "." + format.getExtension()).toString();
+
+    		List<String> errors;
+    		ExportStats stats;
+    		if (format == ExportOptions.Format.EXCEL) {
+    			ExcelExport export = new ExcelExport(dataSource, createStyle(arguments.getOrDefault("style", "simple"),
+    					fullPath, options));
+    			export.run(monitor);
+    			errors = export.getErrors();
+    			stats = export.getStats();
+    		} else {
+    			SinkExport export = new SinkExport(dataSource, options, SinkExport.createSink(format, fullPath));
+    			export.run(monitor);
+    			errors = export.getErrors();
+    			stats = export.getStats();
+    		}
+
+    		System.out.println("File created: " + fullPath);
+    		System.out.println(stats.format());
+    		if (!errors.isEmpty()) {
+    			System.err.println(errors.size() + " table(s) could not be exported:");
+    			errors.forEach(System.err::println);
+    			return EXIT_TABLE_ERRORS;
+    		}
+    		return EXIT_OK;
+    	} catch (Exception e) {
+    		e.printStackTrace();
+    		System.err.println("Failed to generate Excel: " + e.getMessage());
+    		return EXIT_FAILED;
+    	} finally {
+    		if (connected) {
+    			try {
+    				container.disconnect(monitor);
+    			} catch (Exception e) {
+    				e.printStackTrace();
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    // The connection of -connection is the 'after' side; -compareWith names a snapshot file or another connection
+    private static Integer compare(DBRProgressMonitor monitor, CubridDataSource dataSource, Map<String, String> arguments,
+    		ExportOptions options, String fullPath) throws Exception {
+    	String compareWith = arguments.get("compareWith");
+    	DBPDataSourceContainer beforeContainer = null;
+    	boolean connected = false;
+    	try {
+    		SchemaCompare.Source before;
+    		if (Files.isRegularFile(Path.of(compareWith))) {
+    			before = SchemaCompare.snapshot(Path.of(compareWith));
+    		} else {
+    			beforeContainer = findDataSource(arguments.get("project"), compareWith);
+    			if (!beforeContainer.isConnected()) {
+    				System.out.println("Connecting to " + beforeContainer.getName());
+    				beforeContainer.connect(monitor, true, true);
+    				connected = true;
+    			}
+    			if (!(beforeContainer.getDataSource() instanceof CubridDataSource beforeDataSource)) {
+    				throw new IllegalArgumentException("'" + beforeContainer.getName() + "' is not a CUBRID connection");
+    			}
+    			before = SchemaCompare.live(beforeDataSource, options);
+    		}
+
+    		SchemaCompare compare = new SchemaCompare(before, SchemaCompare.live(dataSource, options),
+    				createStyle(arguments.getOrDefault("style", "simple"), fullPath, options));
+    		if (arguments.containsKey("saveSnapshot")) {
+    			compare.setSnapshotFile(Path.of(arguments.get("saveSnapshot")));
+    		}
+    		compare.run(monitor);
+
+    		System.out.println("File created: " + fullPath);
+    		System.out.println(compare.getDiff().getChanges().size() + " change(s) in "
+    				+ compare.getDiff().getAlteredTables() + " altered table(s)");
+    		if (!compare.getErrors().isEmpty()) {
+    			System.err.println(compare.getErrors().size() + " table(s) could not be compared:");
+    			compare.getErrors().forEach(System.err::println);
+    			return EXIT_TABLE_ERRORS;
+    		}
+    		return EXIT_OK;
+    	} finally {
+    		if (connected) {
+    			try {
+    				beforeContainer.disconnect(monitor);
+    			} catch (Exception e) {
+    				e.printStackTrace();
+    			}
+    		}
+    	}
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+    	Map<String, String> arguments = new HashMap<>();
+    	for (int i = 0; i < args.length; i++) {
+    		String name = args[i].startsWith("-") ? args[i].substring(1) : args[i];
+    		if (FLAGS.contains(name)) {
+    			arguments.put(name, "true");
+    		} else if (VALUES.contains(name)) {
+    			if (i + 1 >= args.length) {
+    				throw new IllegalArgumentException("Missing value for -" + name);
+    			}
+    			arguments.put(name, args[++i]);
+    		} else {
+    			throw new IllegalArgumentException("Unknown argument: " + args[i]);
+    		}
+    	}
+    	if (!arguments.containsKey("connection") || !arguments.containsKey("output")) {
+    		throw new IllegalArgumentException("-connection and -output are required");
+    	}
+    	return arguments;
+    }
+
+    private static ExportOptions createOptions(Map<String, String> arguments) {
+    	ExportOptions options = new ExportOptions();
+    	if (arguments.containsKey("backend")) {
+    		options.setBackend(ExportOptions.Backend.valueOf(arguments.get("backend").toUpperCase(Locale.ROOT)));
+    	}
+    	if (arguments.containsKey("rowWindow")) {
+    		options.setRowWindow(Integer.parseInt(arguments.get("rowWindow")));
+    	}
+    	if (arguments.containsKey("parallelism")) {
+    		options.setParallelism(Integer.parseInt(arguments.get("parallelism")));
+    	}
+    	if (arguments.containsKey("ddl")) {
+    		options.setDdlSource(ExportOptions.DdlSource.valueOf(arguments.get("ddl").toUpperCase(Locale.ROOT)));
+    	}
+    	if (arguments.containsKey("split")) {
+    		options.setSplit(ExportOptions.Split.valueOf(arguments.get("split").toUpperCase(Locale.ROOT)));
+    	}
+    	if (arguments.containsKey("tablesPerWorkbook")) {
+    		options.setTablesPerWorkbook(Integer.parseInt(arguments.get("tablesPerWorkbook")));
+    	}
+    	if (arguments.containsKey("cacheTtl")) {
+    		options.setCacheTtlMinutes(Integer.parseInt(arguments.get("cacheTtl")));
+    	}
+    	if (arguments.containsKey("cacheDir")) {
+    		options.setCacheDir(Path.of(arguments.get("cacheDir")));
+    	}
+    	options.setTableFilter(TableFilter.parse(arguments.get("owners"), arguments.get("include"),
+    			arguments.get("exclude"), arguments.get("tables")));
+    	options.setIncremental(arguments.containsKey("incremental"));
+    	options.setRelationshipsSheet(arguments.containsKey("relationships"));
+    	options.setStatsSheet(arguments.containsKey("statsSheet"));
+    	options.setStatsFile(arguments.containsKey("statsFile"));
+    	return options;
+    }
+
+    private static ExcelMainStyle createStyle(String style, String fullPath, ExportOptions options) {
+    	return switch (style.toLowerCase(Locale.ROOT)) {
+    		case "simple" -> new ExcelSimpleStyle(fullPath, options);
+    		case "generic" -> new ExcelGenericStyle(fullPath, options);
+    		default -> new ExcelTemplateStyle(fullPath, options, ExcelTemplate.load(new File(style)));
+    	};
+    }
+
+    // The connection can be given by id or by the name shown in the navigator
+    private static DBPDataSourceContainer findDataSource(String projectName, String connection) {
+    	DBPWorkspace workspace = DBWorkbench.getPlatform().getWorkspace();
+    	DBPProject project = projectName == null ? workspace.getActiveProject() : workspace.getProject(projectName);
+    	if (project == null) {
+    		throw new IllegalArgumentException("Project not found: " + projectName);
+    	}
+    	DBPDataSourceRegistry registry = project.getDataSourceRegistry();
+    	DBPDataSourceContainer container = registry.getDataSource(connection);
+    	if (container == null) {
+    		container = registry.findDataSourceByName(connection);
+    	}
+    	if (container == null) {
+    		throw new IllegalArgumentException("Connection not found in project " + project.getName() + ": " + connection);
+    	}
+    	return container;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// Catalog data read once per export and shared by all fetch workers
+final class BulkMetadata {
+	private final Map<String, List<IndexKey>> indexes;
+	// Null when columns are loaded table by table, also when the bulk query failed
+	private final Map<String, List<ColumnDef>> columns;
+	// Null when the DDL comes from DBeaver's generator
+	private final DdlSynthesizer ddl;
+	// Null when the foreign keys are loaded table by table
+	private final Relationships relationships;
+	private final List<String> warnings;
+	private final ExportStats stats;
+
+	private BulkMetadata(Map<String, List<IndexKey>> indexes, Map<String, List<ColumnDef>> columns, DdlSynthesizer ddl,
+			Relationships relationships, List<String> warnings, ExportStats stats) {
+		this.indexes = indexes;
+		this.columns = columns;
+		this.ddl = ddl;
+		this.relationships = relationships;
+		this.warnings = warnings;
+		this.stats = stats;
+	}
+
+	static BulkMetadata load(DBRProgressMonitor monitor, MetaSession session, ExportOptions options,
+			ExportStats stats) {
+		return stats.time(ExportStats.Phase.CATALOG, () -> {
+			Map<String, List<IndexKey>> indexes = TableDefinitionFetcher.getIndexes(monitor, session, options.getTableFilter());
+			stats.addQueries(1);
+			indexes.values().forEach(tableIndexes -> tableIndexes.forEach(index -> stats.addRowsRead(index.getColumns().size())));
+
+			Map<String, List<ColumnDef>> columns = null;
+			if (options.isBulkColumns()) {
+				columns = TableDefinitionFetcher.getColumnsByTable(monitor, session, options.getTableFilter());
+				stats.addQueries(1);
+				if (columns != null) {
+					columns.values().forEach(tableColumns -> stats.addRowsRead(tableColumns.size()));
+				}
+			}
+
+			Relationships relationships = Relationships.load(monitor, session, options.getTableFilter());
+			stats.addQueries(relationships == null ? 1 : relationships.getRequests());
+			if (relationships != null) {
+				relationships.getForeignKeys().forEach(foreignKey -> stats.addRowsRead(foreignKey.getColumns().size()));
+			}
+
+			// The foreign key rules in the DDL come from the relationships
+			List<String> warnings = new ArrayList<>();
+			DdlSynthesizer ddl = DdlSynthesizer.create(monitor, session, options, relationships);
+			if (ddl != null) {
+				stats.addQueries(ddl.getQueries());
+				stats.addRowsRead(ddl.getRowsRead());
+			} else if (options.getDdlSource() != ExportOptions.DdlSource.DATABASE) {
+				stats.addQueries(1);
+				warnings.add("DDL: the catalog could not be read, the DDL was taken from the database instead");
+			}
+			return new BulkMetadata(indexes, columns, ddl, relationships, warnings, stats);
+		});
+	}
+
+	static BulkMetadata empty(ExportStats stats) {
+		return new BulkMetadata(Map.of(), null, null, null, List.of(), stats);
+	}
+
+	Map<String, List<IndexKey>> getIndexes() { return indexes; }
+	Map<String, List<ColumnDef>> getColumns() { return columns; }
+	DdlSynthesizer getDdl() { return ddl; }
+	Relationships getRelationships() { return relationships; }
+	ExportStats getStats() { return stats; }
+
+	List<String> getWarnings() {
+		if (ddl == null) {
+			return warnings;
+		}
+		List<String> all = new ArrayList<>(warnings);
+		all.addAll(ddl.getMismatches());
+		return all;
+	}
+}
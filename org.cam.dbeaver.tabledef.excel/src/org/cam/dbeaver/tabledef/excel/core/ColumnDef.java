@@ -0,0 +1,73 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ConstraintIndex.ForeignKeyRef;
+
+public final class ColumnDef {
+	private final String name;
+	private final String typeName;
+	private final long maxLength;
+	private final boolean required;
+	private final String defaultValue;
+	private final String description;
+	private final int primaryKeyOrdinal;
+	private final List<Integer> uniqueKeyOrdinals;
+	private final boolean foreignKey;
+	private final ForeignKeyRef foreignKeyRef;
+
+	public ColumnDef(String name, String typeName, long maxLength, boolean required, String defaultValue,
+			String description, int primaryKeyOrdinal, List<Integer> uniqueKeyOrdinals, boolean foreignKey,
+			ForeignKeyRef foreignKeyRef) {
+		this.name = name;
+		this.typeName = typeName;
+		this.maxLength = maxLength;
+		this.required = required;
+		this.defaultValue = defaultValue;
+		this.description = description;
+		this.primaryKeyOrdinal = primaryKeyOrdinal;
+		this.uniqueKeyOrdinals = List.copyOf(uniqueKeyOrdinals);
+		this.foreignKey = foreignKey || foreignKeyRef != null;
+		this.foreignKeyRef = foreignKeyRef;
+	}
+
+	public String getName() { return name; }
+	public String getTypeName() { return typeName; }
+	public long getMaxLength() { return maxLength; }
+	public boolean isRequired() { return required; }
+	public String getDefaultValue() { return defaultValue; }
+	public String getDescription() { return description; }
+	public boolean isPrimaryKey() { return primaryKeyOrdinal > 0; }
+	public int getPrimaryKeyOrdinal() { return primaryKeyOrdinal; }
+	public List<Integer> getUniqueKeyOrdinals() { return uniqueKeyOrdinals; }
+	public boolean isForeignKey() { return foreignKey; }
+	public ForeignKeyRef getForeignKeyRef() { return foreignKeyRef; }
+
+	// Same column with the key information of its table
+	ColumnDef withKeys(int primaryKeyOrdinal, List<Integer> uniqueKeyOrdinals, ForeignKeyRef foreignKeyRef) {
+		return new ColumnDef(name, typeName, maxLength, required, defaultValue, description,
+				primaryKeyOrdinal, uniqueKeyOrdinals, foreignKey, foreignKeyRef);
+	}
+
+	public String getPrimaryKeyLabel() {
+		return primaryKeyOrdinal > 0 ? String.valueOf(primaryKeyOrdinal) : "";
+	}
+
+	public String getUniqueKeyLabel() {
+		StringBuilder label = new StringBuilder();
+		for (Integer ordinal : uniqueKeyOrdinals) {
+			if (label.length() > 0) {
+				label.append(',');
+			}
+			label.append(ordinal);
+		}
+		return label.toString();
+	}
+
+	public String getForeignKeyLabel() {
+		if (foreignKeyRef != null) {
+			return String.valueOf(foreignKeyRef.getOrdinal());
+		}
+		return foreignKey ? "Y" : "";
+	}
+}
@@ -0,0 +1,69 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ConstraintIndex {
+	private final Map<String, Integer> primaryKey = new HashMap<>();
+	private final Map<String, List<Integer>> uniqueKeys = new HashMap<>();
+	private final Map<String, ForeignKeyRef> foreignKeys = new HashMap<>();
+	private int uniqueKeyCount;
+	private int foreignKeyCount;
+
+	void addPrimaryKeyColumn(String columnName, int position) {
+		primaryKey.put(columnName, position);
+	}
+
+	int nextUniqueKey() {
+		return ++uniqueKeyCount;
+	}
+
+	void addUniqueKeyColumn(String columnName, int uniqueKey) {
+		uniqueKeys.computeIfAbsent(columnName, k -> new ArrayList<>(1)).add(uniqueKey);
+	}
+
+	int nextForeignKey() {
+		return ++foreignKeyCount;
+	}
+
+	void addForeignKeyColumn(String columnName, int foreignKey, String referencedTable, String referencedColumn) {
+		// A column used by several foreign keys is reported with the first one
+		foreignKeys.putIfAbsent(columnName, new ForeignKeyRef(foreignKey, referencedTable, referencedColumn));
+	}
+
+	public boolean isPrimaryKey(String columnName) {
+		return primaryKey.containsKey(columnName);
+	}
+
+	// 1-based position of the column inside the primary key, 0 if it is not part of it
+	public int getPrimaryKeyOrdinal(String columnName) {
+		return primaryKey.getOrDefault(columnName, 0);
+	}
+
+	// Numbers of the unique keys the column takes part in, in declaration order
+	public List<Integer> getUniqueKeyOrdinals(String columnName) {
+		return uniqueKeys.getOrDefault(columnName, List.of());
+	}
+
+	public ForeignKeyRef getForeignKey(String columnName) {
+		return foreignKeys.get(columnName);
+	}
+
+	public static final class ForeignKeyRef {
+		private final int ordinal;
+		private final String referencedTable;
+		private final String referencedColumn;
+
+		ForeignKeyRef(int ordinal, String referencedTable, String referencedColumn) {
+			this.ordinal = ordinal;
+			this.referencedTable = referencedTable;
+			this.referencedColumn = referencedColumn;
+		}
+
+		public int getOrdinal() { return ordinal; }
+		public String getReferencedTable() { return referencedTable; }
+		public String getReferencedColumn() { return referencedColumn; }
+	}
+}
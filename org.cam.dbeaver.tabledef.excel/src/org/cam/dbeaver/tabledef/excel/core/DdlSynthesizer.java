@@ -0,0 +1,521 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.cam.dbeaver.tabledef.excel.core.ConstraintIndex.ForeignKeyRef;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridTable;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// Builds CREATE TABLE text from catalog rows loaded once for all tables, instead of asking DBeaver's
+// DDL generator table by table. The layout follows the generated DDL the export used so far.
+public final class DdlSynthesizer {
+	private static final String NL = System.lineSeparator();
+
+	private final ExportOptions.DdlSource source;
+	private final boolean isSupportMultiSchema;
+	// Null when the foreign keys could not be loaded; the constraints are then written without their rules,
+	// as they are for tables the relationships could not resolve
+	private final Relationships relationships;
+	private final Map<String, Map<String, String>> columnTypes = new HashMap<>();
+	// Element types of SET, MULTISET and SEQUENCE attributes, read before the attributes
+	private final Map<String, Map<String, List<String>>> collectionElements = new HashMap<>();
+	// Columns a subclass takes over from its super classes are declared there, not in its own CREATE TABLE
+	private final Map<String, Set<String>> inheritedColumns = new HashMap<>();
+	private final Map<String, List<String>> classAttributes = new HashMap<>();
+	private final Map<String, Map<String, String>> autoIncrements = new HashMap<>();
+	private final Map<String, List<String>> superClasses = new HashMap<>();
+	private final Map<String, List<String>> tableOptions = new HashMap<>();
+	private final Map<String, Map<String, Index>> indexes = new HashMap<>();
+	private final Map<String, List<Partition>> partitions = new HashMap<>();
+	private final List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+	private int queries;
+	private long rowsRead;
+
+	DdlSynthesizer(ExportOptions.DdlSource source, boolean isSupportMultiSchema, Relationships relationships) {
+		this.source = source;
+		this.isSupportMultiSchema = isSupportMultiSchema;
+		this.relationships = relationships;
+	}
+
+	// Null when the DDL is taken from the database, also when one of the catalog queries failed: the DDL
+	// synthesized from part of the catalog would silently lack clauses, so DBeaver's generator is used instead
+	public static DdlSynthesizer create(DBRProgressMonitor monitor, MetaSession session, ExportOptions options,
+			Relationships relationships) {
+		if (options.getDdlSource() == ExportOptions.DdlSource.DATABASE) {
+			return null;
+		}
+		DdlSynthesizer synthesizer = new DdlSynthesizer(options.getDdlSource(),
+				session.getDataSource().getSupportMultiSchema(), relationships);
+		try {
+			synthesizer.load(monitor, session, options.getTableFilter());
+		} catch (SQLException | DBCException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return synthesizer;
+	}
+
+	// Tables whose synthesized text differs from the database one, filled in COMPARE mode
+	public List<String> getMismatches() {
+		synchronized (mismatches) {
+			return List.copyOf(mismatches);
+		}
+	}
+
+	boolean isComparing() {
+		return source == ExportOptions.DdlSource.COMPARE;
+	}
+
+	int getQueries() {
+		return queries;
+	}
+
+	long getRowsRead() {
+		return rowsRead;
+	}
+
+	String getDDL(DBRProgressMonitor monitor, CubridTable table, String description, List<ColumnDef> columns) {
+		String tableKey = TableDefinitionFetcher.getTableKey(table);
+		String qualifiedName = table.getSchema().getName() + "." + table.getName();
+		String ddl = synthesize(tableKey, qualifiedName, description, columns);
+		if (source != ExportOptions.DdlSource.COMPARE) {
+			return ddl;
+		}
+
+		String expected = TableDefinitionFetcher.getDDL(monitor, table);
+		if (!expected.equals(ddl)) {
+			mismatches.add(qualifiedName + ": synthesized DDL differs " + describeDifference(expected, ddl));
+		}
+		return expected;
+	}
+
+	String synthesize(String tableKey, String qualifiedName, String description, List<ColumnDef> columns) {
+		Map<String, String> types = columnTypes.getOrDefault(tableKey, Map.of());
+		Set<String> inherited = inheritedColumns.getOrDefault(tableKey, Set.of());
+		Map<String, String> tableAutoIncrements = autoIncrements.getOrDefault(tableKey, Map.of());
+		Map<String, ForeignKeyRef> references = new HashMap<>();
+		List<String> lines = new ArrayList<>();
+		for (ColumnDef column : columns) {
+			if (column.getForeignKeyRef() != null) {
+				references.put(column.getName(), column.getForeignKeyRef());
+			}
+			if (inherited.contains(column.getName())) {
+				continue;
+			}
+			lines.add(formatColumn(column.getName(), types.getOrDefault(column.getName(), column.getTypeName()),
+					tableAutoIncrements.get(column.getName()), column.getDefaultValue(), column.isRequired(),
+					column.getDescription()));
+		}
+
+		Map<String, Relationships.ForeignKey> foreignKeys = new HashMap<>();
+		List<Relationships.ForeignKey> tableForeignKeys = relationships == null ? null
+				: relationships.getForeignKeys(tableKey);
+		if (tableForeignKeys != null) {
+			for (Relationships.ForeignKey foreignKey : tableForeignKeys) {
+				foreignKeys.put(foreignKey.getName(), foreignKey);
+			}
+		}
+		List<Index> secondary = new ArrayList<>();
+		for (Index index : indexes.getOrDefault(tableKey, Map.of()).values()) {
+			if (index.primaryKey) {
+				lines.add("\tCONSTRAINT " + index.name + " PRIMARY KEY (" + String.join(", ", index.columns) + ")");
+			} else if (index.foreignKey) {
+				Relationships.ForeignKey foreignKey = foreignKeys.get(index.name);
+				if (foreignKey != null) {
+					lines.add("\tCONSTRAINT " + index.name + " FOREIGN KEY (" + String.join(", ", foreignKey.getColumns())
+							+ ") REFERENCES " + foreignKey.getReferencedTableName()
+							+ "(" + String.join(", ", foreignKey.getReferencedColumns()) + ")"
+							+ " ON DELETE " + foreignKey.getOnDelete() + " ON UPDATE " + foreignKey.getOnUpdate());
+					continue;
+				}
+				// Without the driver's foreign keys only the columns are known, not the rules
+				ForeignKeyRef reference = references.get(index.columns.get(0));
+				if (reference == null) {
+					continue;
+				}
+				List<String> referencedColumns = new ArrayList<>();
+				for (String column : index.columns) {
+					ForeignKeyRef columnReference = references.get(column);
+					referencedColumns.add(columnReference == null ? column : columnReference.getReferencedColumn());
+				}
+				lines.add("\tCONSTRAINT " + index.name + " FOREIGN KEY (" + String.join(", ", index.columns)
+						+ ") REFERENCES " + reference.getReferencedTable() + "(" + String.join(", ", referencedColumns) + ")");
+			} else if (index.unique) {
+				lines.add("\tCONSTRAINT " + index.name + " UNIQUE (" + String.join(", ", index.keys) + ")");
+			} else {
+				secondary.add(index);
+			}
+		}
+
+		StringBuilder ddl = new StringBuilder("-- DROP TABLE ").append(qualifiedName).append(';').append(NL).append(NL)
+				.append("CREATE TABLE ").append(qualifiedName);
+		List<String> supers = superClasses.get(tableKey);
+		if (supers != null) {
+			ddl.append(" UNDER ").append(String.join(", ", supers));
+		}
+		ddl.append(" (").append(NL).append(String.join("," + NL, lines)).append(NL).append(')');
+		List<String> tableClassAttributes = classAttributes.get(tableKey);
+		if (tableClassAttributes != null) {
+			ddl.append(NL).append("CLASS ATTRIBUTE (").append(NL)
+					.append(String.join("," + NL, tableClassAttributes)).append(NL).append(')');
+		}
+		for (String option : tableOptions.getOrDefault(tableKey, List.of())) {
+			ddl.append(NL).append(option);
+		}
+		if (description != null && !description.isEmpty()) {
+			ddl.append(NL).append("COMMENT=").append(quote(description));
+		}
+		appendPartitions(ddl, partitions.get(tableKey));
+		ddl.append(';');
+		for (Index index : secondary) {
+			ddl.append(NL).append("CREATE ").append(index.reverse ? "REVERSE " : "").append("INDEX ").append(index.name)
+					.append(" ON ").append(qualifiedName).append(" (").append(String.join(", ", index.keys)).append(");");
+		}
+		return ddl.toString();
+	}
+
+	private static String formatColumn(String name, String type, String autoIncrement, String defaultValue,
+			boolean required, String description) {
+		StringBuilder line = new StringBuilder("\t").append(name).append(' ').append(type);
+		// A column has either a default or an AUTO_INCREMENT serial, never both
+		if (autoIncrement != null) {
+			line.append(" AUTO_INCREMENT").append(autoIncrement);
+		} else if (defaultValue != null && !defaultValue.isEmpty()) {
+			line.append(" DEFAULT ").append(defaultValue);
+		}
+		if (required) {
+			line.append(" NOT NULL");
+		}
+		if (description != null && !description.isEmpty()) {
+			line.append(" COMMENT ").append(quote(description));
+		}
+		return line.toString();
+	}
+
+	private static void appendPartitions(StringBuilder ddl, List<Partition> tablePartitions) {
+		if (tablePartitions == null || tablePartitions.isEmpty()) {
+			return;
+		}
+		Partition first = tablePartitions.get(0);
+		ddl.append(NL).append("PARTITION BY ").append(first.type).append(" (").append(first.expression).append(')');
+		if ("HASH".equals(first.type)) {
+			ddl.append(" PARTITIONS ").append(tablePartitions.size());
+			return;
+		}
+		List<String> definitions = new ArrayList<>();
+		for (Partition partition : tablePartitions) {
+			String values = partition.values == null ? "" : partition.values.replaceAll("^\\{|\\}$", "");
+			if ("RANGE".equals(first.type)) {
+				// The catalog keeps {lower, upper}; only the upper bound is declared
+				int comma = values.lastIndexOf(',');
+				String upper = (comma < 0 ? values : values.substring(comma + 1)).trim();
+				definitions.add("PARTITION " + partition.name + " VALUES LESS THAN "
+						+ (upper.isEmpty() || "NULL".equalsIgnoreCase(upper) ? "MAXVALUE" : "(" + upper + ")"));
+			} else {
+				definitions.add("PARTITION " + partition.name + " VALUES IN (" + values + ")");
+			}
+		}
+		ddl.append(" (").append(NL).append('\t').append(String.join("," + NL + "\t", definitions)).append(NL).append(')');
+	}
+
+	private static String quote(String text) {
+		return "'" + text.replace("'", "''") + "'";
+	}
+
+	private static String describeDifference(String expected, String actual) {
+		String[] expectedLines = expected.split("\r?\n", -1);
+		String[] actualLines = actual.split("\r?\n", -1);
+		for (int i = 0; i < Math.max(expectedLines.length, actualLines.length); i++) {
+			String e = i < expectedLines.length ? expectedLines[i] : "";
+			String a = i < actualLines.length ? actualLines[i] : "";
+			if (!e.equals(a)) {
+				return "at line " + (i + 1) + ": expected [" + e.trim() + "] but was [" + a.trim() + "]";
+			}
+		}
+		return "in line endings";
+	}
+
+	private void load(DBRProgressMonitor monitor, MetaSession session, TableFilter filter)
+			throws SQLException, DBCException {
+		CubridDataSource dataSource = session.getDataSource();
+		List<String> elementParameters = new ArrayList<>();
+		List<String> attributeParameters = new ArrayList<>();
+		List<String> indexParameters = new ArrayList<>();
+		List<String> partitionParameters = new ArrayList<>();
+		List<String> classParameters = new ArrayList<>();
+		List<String> superClassParameters = new ArrayList<>();
+		String elementQuery = "SELECT e.* FROM db_attr_setdomain_elm e\n"
+				+ TableDefinitionFetcher.whereFilter("e", isSupportMultiSchema, filter, elementParameters)
+				+ "ORDER BY " + (isSupportMultiSchema ? "e.owner_name, " : "") + "e.class_name, e.attr_name";
+		String attributeQuery = "SELECT " + (isSupportMultiSchema ? "a.owner_name, " : "")
+				+ "a.class_name, a.attr_name, a.attr_type, a.from_class_name, a.data_type, a.prec, a.scale,\n"
+				+ "a.default_value, a.is_nullable, a.comment FROM db_attribute a\n"
+				+ (filter.isAll() ? "" : "JOIN db_class c ON a.class_name = c.class_name\n"
+						+ (isSupportMultiSchema ? "AND a.owner_name = c.owner_name\n" : ""))
+				+ "WHERE a.attr_type IN ('INSTANCE', 'CLASS')\n"
+				+ TableDefinitionFetcher.andFilter(filter, attributeParameters)
+				+ "ORDER BY " + (isSupportMultiSchema ? "a.owner_name, " : "") + "a.class_name, a.def_order";
+		String indexQuery = "SELECT k.*, i.is_unique, i.is_reverse, i.is_primary_key, i.is_foreign_key FROM db_index_key k\n"
+				+ "JOIN db_index i ON k.index_name = i.index_name\n"
+				+ (isSupportMultiSchema ? "AND k.owner_name = i.owner_name\n" : "")
+				+ "AND k.class_name = i.class_name\n"
+				+ TableDefinitionFetcher.whereFilter("k", isSupportMultiSchema, filter, indexParameters)
+				+ "ORDER BY " + (isSupportMultiSchema ? "k.owner_name, " : "") + "k.class_name, k.index_name, k.key_order";
+		String owner = isSupportMultiSchema ? "p.owner_name, " : "";
+		String partitionQuery = "SELECT " + owner + "p.class_name, p.partition_name, p.partition_type, p.partition_expr, p.partition_values\n"
+				+ "FROM db_partition p\n"
+				+ TableDefinitionFetcher.whereFilter("p", isSupportMultiSchema, filter, partitionParameters)
+				+ "ORDER BY " + owner + "p.class_name, p.partition_class_name";
+		String classQuery = "SELECT " + (isSupportMultiSchema ? "c.owner_name, " : "")
+				+ "c.class_name, c.is_reuse_oid_class, c.collation, l.charset_name FROM db_class c\n"
+				+ "LEFT JOIN db_collation l ON c.collation = l.coll_name\n"
+				+ "WHERE c.class_type = 'CLASS' AND c.is_system_class = 'NO'\n"
+				+ TableDefinitionFetcher.andFilter(filter, classParameters);
+		String superClassQuery = "SELECT s.* FROM db_direct_super_class s\n"
+				+ TableDefinitionFetcher.whereFilter("s", isSupportMultiSchema, filter, superClassParameters);
+		// Only the serials behind AUTO_INCREMENT columns name a class; there are few enough to read them all
+		String serialQuery = "SELECT s.* FROM db_serial s WHERE s.class_name IS NOT NULL";
+
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(elementQuery), elementParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				addCollectionElement(getTableKey(dbResult),
+						JDBCUtils.safeGetString(dbResult, "attr_name"),
+						JDBCUtils.safeGetString(dbResult, "data_type"),
+						JDBCUtils.safeGetInt(dbResult, "prec"),
+						JDBCUtils.safeGetInt(dbResult, "scale"));
+			}
+		}
+		// The catalog views do not list the values of an ENUM; SHOW COLUMNS has them in the type
+		Map<String, String> enumTables = new LinkedHashMap<>();
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(attributeQuery), attributeParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				String tableKey = getTableKey(dbResult);
+				if ("ENUM".equals(JDBCUtils.safeGetString(dbResult, "data_type"))) {
+					String tableName = "\"" + JDBCUtils.safeGetString(dbResult, "class_name") + "\"";
+					enumTables.putIfAbsent(tableKey, isSupportMultiSchema
+							? "\"" + JDBCUtils.safeGetString(dbResult, "owner_name") + "\"." + tableName : tableName);
+				}
+				addAttribute(tableKey,
+						JDBCUtils.safeGetString(dbResult, "attr_name"),
+						JDBCUtils.safeGetString(dbResult, "attr_type"),
+						JDBCUtils.safeGetString(dbResult, "from_class_name"),
+						JDBCUtils.safeGetString(dbResult, "data_type"),
+						JDBCUtils.safeGetInt(dbResult, "prec"),
+						JDBCUtils.safeGetInt(dbResult, "scale"),
+						JDBCUtils.safeGetString(dbResult, "default_value"),
+						"NO".equals(JDBCUtils.safeGetString(dbResult, "is_nullable")),
+						JDBCUtils.safeGetString(dbResult, "comment"));
+			}
+		}
+		for (Map.Entry<String, String> table : enumTables.entrySet()) {
+			queries++;
+			try (JDBCResultSet dbResult = session.executeQuery("SHOW COLUMNS FROM " + table.getValue(), List.of())) {
+				while (dbResult.next()) {
+					TableDefinitionFetcher.checkCanceled(monitor);
+					rowsRead++;
+					String type = JDBCUtils.safeGetString(dbResult, "Type");
+					if (type != null && type.toUpperCase(Locale.ROOT).startsWith("ENUM")) {
+						addColumnType(table.getKey(), JDBCUtils.safeGetString(dbResult, "Field"), type);
+					}
+				}
+			}
+		}
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(indexQuery), indexParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				addIndexKey(getTableKey(dbResult),
+						JDBCUtils.safeGetString(dbResult, "index_name"),
+						"YES".equals(JDBCUtils.safeGetString(dbResult, "is_primary_key")),
+						"YES".equals(JDBCUtils.safeGetString(dbResult, "is_foreign_key")),
+						"YES".equals(JDBCUtils.safeGetString(dbResult, "is_unique")),
+						"YES".equals(JDBCUtils.safeGetString(dbResult, "is_reverse")),
+						JDBCUtils.safeGetString(dbResult, "key_attr_name"),
+						"DESC".equals(JDBCUtils.safeGetString(dbResult, "asc_desc")));
+			}
+		}
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(partitionQuery), partitionParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				addPartition(getTableKey(dbResult),
+						JDBCUtils.safeGetString(dbResult, "partition_name"),
+						JDBCUtils.safeGetString(dbResult, "partition_type"),
+						JDBCUtils.safeGetString(dbResult, "partition_expr"),
+						JDBCUtils.safeGetString(dbResult, "partition_values"));
+			}
+		}
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(classQuery), classParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				addTableOptions(getTableKey(dbResult),
+						"YES".equals(JDBCUtils.safeGetString(dbResult, "is_reuse_oid_class")),
+						JDBCUtils.safeGetString(dbResult, "charset_name"),
+						JDBCUtils.safeGetString(dbResult, "collation"));
+			}
+		}
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(superClassQuery), superClassParameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				String superClassName = JDBCUtils.safeGetString(dbResult, "super_class_name");
+				addSuperClass(getTableKey(dbResult), isSupportMultiSchema
+						? JDBCUtils.safeGetString(dbResult, "super_owner_name") + "." + superClassName
+						: superClassName);
+			}
+		}
+		queries++;
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(serialQuery), List.of())) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				rowsRead++;
+				// Servers with schemas keep the owner in the class name ("owner.table") and call the column attr_name
+				String className = JDBCUtils.safeGetString(dbResult, "class_name");
+				int dot = className.indexOf('.');
+				String tableKey = !isSupportMultiSchema ? className.substring(dot + 1)
+						: dot < 0 ? TableDefinitionFetcher.getTableKey(JDBCUtils.safeGetString(dbResult, "owner_name"), className)
+						: TableDefinitionFetcher.getTableKey(className.substring(0, dot).toUpperCase(Locale.ROOT), className.substring(dot + 1));
+				String columnName = JDBCUtils.safeGetString(dbResult, "attr_name");
+				addAutoIncrement(tableKey, columnName != null ? columnName : JDBCUtils.safeGetString(dbResult, "att_name"),
+						JDBCUtils.safeGetString(dbResult, "min_val"),
+						JDBCUtils.safeGetString(dbResult, "increment_val"));
+			}
+		}
+	}
+
+	// One db_attribute row; instance attributes only contribute their declared type, the rest of their
+	// definition comes with the table's columns
+	void addAttribute(String tableKey, String name, String attributeType, String fromClassName, String dataType,
+			int precision, int scale, String defaultValue, boolean required, String comment) {
+		String type = formatType(dataType, precision, scale);
+		List<String> elements = collectionElements.getOrDefault(tableKey, Map.of()).get(name);
+		if (elements != null) {
+			type += "(" + String.join(", ", elements) + ")";
+		}
+		if ("CLASS".equals(attributeType)) {
+			classAttributes.computeIfAbsent(tableKey, k -> new ArrayList<>())
+					.add(formatColumn(name, type, null, defaultValue, required, comment));
+			return;
+		}
+		columnTypes.computeIfAbsent(tableKey, k -> new HashMap<>()).put(name, type);
+		if (fromClassName != null && !fromClassName.isEmpty()) {
+			inheritedColumns.computeIfAbsent(tableKey, k -> new HashSet<>()).add(name);
+		}
+	}
+
+	// One db_attr_setdomain_elm row; a collection attribute can allow several element types
+	void addCollectionElement(String tableKey, String attributeName, String dataType, int precision, int scale) {
+		collectionElements.computeIfAbsent(tableKey, k -> new HashMap<>())
+				.computeIfAbsent(attributeName, k -> new ArrayList<>()).add(formatType(dataType, precision, scale));
+	}
+
+	// A column type read as a whole, like ENUM('a', 'b') from SHOW COLUMNS. SHOW COLUMNS only lists instance
+	// attributes, so an ENUM class attribute keeps the bare type name.
+	void addColumnType(String tableKey, String columnName, String type) {
+		columnTypes.computeIfAbsent(tableKey, k -> new HashMap<>()).put(columnName, type);
+	}
+
+	// One db_index_key row, in key order
+	void addIndexKey(String tableKey, String indexName, boolean primaryKey, boolean foreignKey, boolean unique,
+			boolean reverse, String columnName, boolean descending) {
+		Index index = indexes.computeIfAbsent(tableKey, k -> new LinkedHashMap<>())
+				.computeIfAbsent(indexName, name -> new Index(name, primaryKey, foreignKey, unique, reverse));
+		index.columns.add(columnName);
+		index.keys.add(descending ? columnName + " DESC" : columnName);
+	}
+
+	void addPartition(String tableKey, String name, String type, String expression, String values) {
+		partitions.computeIfAbsent(tableKey, k -> new ArrayList<>()).add(new Partition(name, type, expression, values));
+	}
+
+	void addTableOptions(String tableKey, boolean reuseOid, String charset, String collation) {
+		List<String> options = new ArrayList<>();
+		options.add(reuseOid ? "REUSE_OID" : "DONT_REUSE_OID");
+		if (collation != null && !collation.isEmpty()) {
+			options.add(charset == null || charset.isEmpty() ? "COLLATE " + collation : "CHARSET " + charset + " COLLATE " + collation);
+		}
+		tableOptions.put(tableKey, options);
+	}
+
+	void addSuperClass(String tableKey, String superClassName) {
+		superClasses.computeIfAbsent(tableKey, k -> new ArrayList<>()).add(superClassName);
+	}
+
+	// The serial's minimum is the start value the column was declared with
+	void addAutoIncrement(String tableKey, String columnName, String start, String increment) {
+		autoIncrements.computeIfAbsent(tableKey, k -> new HashMap<>()).put(columnName, "(" + start + ", " + increment + ")");
+	}
+
+	private String getTableKey(JDBCResultSet dbResult) {
+		String tableName = JDBCUtils.safeGetString(dbResult, "class_name");
+		return isSupportMultiSchema
+				? TableDefinitionFetcher.getTableKey(JDBCUtils.safeGetString(dbResult, "owner_name"), tableName)
+				: tableName;
+	}
+
+	// The SQL name the sheets show for the catalog's data_type, with its precision where it is declared
+	static String formatType(String dataType, int precision, int scale) {
+		String type = TableDefinitionFetcher.getTypeName(dataType);
+		return switch (type) {
+			case "VARCHAR", "CHAR", "NCHAR", "NCHAR VARYING", "BIT", "BIT VARYING" -> type + "(" + precision + ")";
+			case "NUMERIC" -> "NUMERIC(" + precision + "," + scale + ")";
+			default -> type;
+		};
+	}
+
+	private static class Index {
+		final String name;
+		final boolean primaryKey;
+		final boolean foreignKey;
+		final boolean unique;
+		final boolean reverse;
+		final List<String> columns = new ArrayList<>();
+		final List<String> keys = new ArrayList<>();
+
+		Index(String name, boolean primaryKey, boolean foreignKey, boolean unique, boolean reverse) {
+			this.name = name;
+			this.primaryKey = primaryKey;
+			this.foreignKey = foreignKey;
+			this.unique = unique;
+			this.reverse = reverse;
+		}
+	}
+
+	private static class Partition {
+		final String name;
+		final String type;
+		final String expression;
+		final String values;
+
+		Partition(String name, String type, String expression, String values) {
+			this.name = name;
+			this.type = type;
+			this.expression = expression;
+			this.values = values;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.nio.file.Path;
+
+public class ExportOptions {
+	public enum Backend {
+		// POI workbook kept in memory until saved
+		XSSF,
+		// POI SXSSF, rows beyond the window are flushed to temp files
+		STREAMING,
+		// SpreadsheetML written straight into the zip, no POI object model
+		DIRECT
+	}
+
+	public enum DdlSource {
+		// DBeaver's DDL generator, one call per table
+		DATABASE,
+		// Built from catalog rows loaded once for all tables
+		SYNTHESIZED,
+		// Database text is exported, tables where the synthesized text differs are reported
+		COMPARE
+	}
+
+	public enum Format {
+		EXCEL("xlsx"),
+		// One row per column
+		CSV("csv"),
+		// One object per table and line
+		JSON_LINES("jsonl"),
+		MARKDOWN("md");
+
+		private final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	public enum Split {
+		// Everything in one workbook
+		NONE,
+		// One workbook per owner
+		OWNER,
+		// One workbook per 'tablesPerWorkbook' tables
+		TABLES
+	}
+
+	public static final int DEFAULT_ROW_WINDOW = 100;
+	public static final int MIN_ROW_WINDOW = 50;
+	public static final int DEFAULT_PARALLELISM = 4;
+	public static final int MAX_PARALLELISM = 32;
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+	public static final int DEFAULT_TABLES_PER_WORKBOOK = 200;
+	public static final int DEFAULT_CACHE_TTL_MINUTES = 60;
+	public static final Path DEFAULT_CACHE_DIR = Path.of(System.getProperty("user.home"), ".tabledef-excel", "snapshots");
+
+	private Backend backend = Backend.XSSF;
+	private int rowWindow = DEFAULT_ROW_WINDOW;
+	private int parallelism = DEFAULT_PARALLELISM;
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private boolean incremental;
+	private DdlSource ddlSource = DdlSource.DATABASE;
+	private boolean bulkColumns = true;
+	private boolean statsSheet;
+	private boolean relationshipsSheet;
+	private boolean statsFile;
+	private TableFilter tableFilter = TableFilter.ALL;
+	private Split split = Split.NONE;
+	private int tablesPerWorkbook = DEFAULT_TABLES_PER_WORKBOOK;
+	private int cacheTtlMinutes;
+	private Path cacheDir = DEFAULT_CACHE_DIR;
+
+	public Backend getBackend() {
+		return backend;
+	}
+
+	public void setBackend(Backend backend) {
+		this.backend = backend;
+	}
+
+	public int getRowWindow() {
+		return rowWindow;
+	}
+
+	public void setRowWindow(int rowWindow) {
+		// Merges and the DDL row height are applied a few rows behind the cursor
+		this.rowWindow = Math.max(rowWindow, MIN_ROW_WINDOW);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = Math.max(queueCapacity, 1);
+	}
+
+	public DdlSource getDdlSource() {
+		return ddlSource;
+	}
+
+	public void setDdlSource(DdlSource ddlSource) {
+		this.ddlSource = ddlSource;
+	}
+
+	public boolean isBulkColumns() {
+		return bulkColumns;
+	}
+
+	// Read the columns of all tables from db_attribute in one query instead of one DBeaver call per table
+	public void setBulkColumns(boolean bulkColumns) {
+		this.bulkColumns = bulkColumns;
+	}
+
+	public boolean isStatsSheet() {
+		return statsSheet;
+	}
+
+	// Appends a hidden "Export Stats" sheet with the timings and counts of the export
+	public void setStatsSheet(boolean statsSheet) {
+		this.statsSheet = statsSheet;
+	}
+
+	public boolean isRelationshipsSheet() {
+		return relationshipsSheet;
+	}
+
+	// Adds a "Relationships" sheet listing every foreign key, and one with the fan-in and fan-out of each table
+	public void setRelationshipsSheet(boolean relationshipsSheet) {
+		this.relationshipsSheet = relationshipsSheet;
+	}
+
+	public boolean isStatsFile() {
+		return statsFile;
+	}
+
+	// Writes the timings and counts next to the workbook as <file>.stats.json
+	public void setStatsFile(boolean statsFile) {
+		this.statsFile = statsFile;
+	}
+
+	public TableFilter getTableFilter() {
+		return tableFilter;
+	}
+
+	// Limits the export to some owners or tables; the conditions are added to the catalog queries
+	public void setTableFilter(TableFilter tableFilter) {
+		this.tableFilter = tableFilter == null ? TableFilter.ALL : tableFilter;
+	}
+
+	public Split getSplit() {
+		return split;
+	}
+
+	// Writes the tables into several smaller workbooks at the same time, tied together by an index workbook.
+	// Split exports always regenerate every table; the incremental option is ignored.
+	public void setSplit(Split split) {
+		this.split = split;
+	}
+
+	public int getTablesPerWorkbook() {
+		return tablesPerWorkbook;
+	}
+
+	public void setTablesPerWorkbook(int tablesPerWorkbook) {
+		this.tablesPerWorkbook = Math.max(tablesPerWorkbook, 1);
+	}
+
+	public int getCacheTtlMinutes() {
+		return cacheTtlMinutes;
+	}
+
+	// Reuse the table definitions of an export of the same connection made less than this many minutes ago,
+	// or later when the catalog has not changed since; 0 always reads the database
+	public void setCacheTtlMinutes(int cacheTtlMinutes) {
+		this.cacheTtlMinutes = Math.max(cacheTtlMinutes, 0);
+	}
+
+	public Path getCacheDir() {
+		return cacheDir;
+	}
+
+	public void setCacheDir(Path cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	// Reuse the detail sheets of the previous export for tables whose catalog rows did not change
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+}
@@ -0,0 +1,232 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridTable;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+public class ExportPipeline {
+	private static final long CANCEL_POLL_MILLIS = 200;
+
+	public interface Renderer {
+		void renderTableList(List<TableDef> tables);
+		void renderTable(TableDef table);
+
+		// Called after the tables when the options ask for a relationships sheet
+		default void renderRelationships(Relationships relationships) {
+		}
+	}
+
+	// A renderer that can carry a table over from an earlier export instead of rendering it
+	public interface ReusingRenderer extends Renderer {
+		// Called instead of renderTable for tables the 'reuse' predicate accepted; they are never fetched
+		void reuseTable(TableDef header);
+	}
+
+	public static List<String> run(DBRProgressMonitor monitor, CubridDataSource dataSource, ExportOptions options,
+			Renderer renderer) {
+		return run(monitor, dataSource, options, renderer, new ExportStats());
+	}
+
+	// Fetch workers fill a bounded queue in table order while the calling thread renders from it.
+	// Returns one message per table that could not be loaded. Throws CancellationException when the
+	// monitor is cancelled.
+	public static List<String> run(DBRProgressMonitor monitor, CubridDataSource dataSource, ExportOptions options,
+			Renderer renderer, ExportStats stats) {
+		try (MetaSession session = MetaSession.open(monitor, dataSource)) {
+			return run(monitor, session, options, renderer, header -> false, null, null, stats);
+		}
+	}
+
+	// Runs the catalog queries on the caller's session, which stays open afterwards. Tables the 'reuse'
+	// predicate accepts are handed to reuseTable instead of being fetched. 'fingerprints' are the live ones
+	// of the caller; a cached snapshot is only replayed when it was taken of exactly these.
+	public static List<String> run(DBRProgressMonitor monitor, MetaSession session, ExportOptions options,
+			ReusingRenderer renderer, Predicate<TableDef> reuse, Map<String, String> fingerprints, ExportStats stats) {
+		return run(monitor, session, options, renderer, reuse, renderer::reuseTable, fingerprints, stats);
+	}
+
+	// 'reuseTable' is only called for tables 'reuse' accepts, so it may be null when it accepts none.
+	// 'fingerprints' is null when the caller has not read them.
+	private static List<String> run(DBRProgressMonitor monitor, MetaSession session, ExportOptions options,
+			Renderer renderer, Predicate<TableDef> reuse, Consumer<TableDef> reuseTable, Map<String, String> fingerprints,
+			ExportStats stats) {
+		SnapshotCache cache = SnapshotCache.forExport(session.getDataSource(), options);
+		if (cache == null) {
+			return runLive(monitor, session, options, renderer, reuse, reuseTable, stats);
+		}
+		String catalogVersion = fingerprints == null ? null : SnapshotCache.getCatalogVersion(fingerprints);
+		// A replay renders the foreign keys stored with the tables as well
+		List<String> errors = cache.replay(monitor, session, renderer, reuse, reuseTable, catalogVersion, stats);
+		if (errors != null) {
+			return errors;
+		}
+		SnapshotCache.Recorder recorder = cache.record(monitor, session, renderer, catalogVersion, stats);
+		try {
+			errors = runLive(monitor, session, options, recorder, reuse, reuseTable, stats);
+		} catch (RuntimeException e) {
+			recorder.discard();
+			throw e;
+		}
+		// Tables that failed are missing from the snapshot, so it is not kept
+		if (errors.isEmpty()) {
+			recorder.commit();
+		} else {
+			recorder.discard();
+		}
+		return errors;
+	}
+
+	private static List<String> runLive(DBRProgressMonitor monitor, MetaSession session, ExportOptions options,
+			Renderer renderer, Predicate<TableDef> reuse, Consumer<TableDef> reuseTable, ExportStats stats) {
+		monitor.subTask("Reading table list");
+		List<CubridTable> allTables = stats.time(ExportStats.Phase.TABLE_LIST,
+				() -> TableDefinitionFetcher.getTables(monitor, session.getDataSource(), options.getTableFilter(), stats));
+		stats.addRowsRead(allTables.size());
+		// One unit for the table list, one for the catalog and one per table
+		monitor.beginTask("Exporting table definitions", allTables.size() + 2);
+		try {
+			List<TableDef> headers = new ArrayList<>(allTables.size());
+			List<CubridTable> tables = new ArrayList<>(allTables.size());
+			boolean[] reused = new boolean[allTables.size()];
+			for (int i = 0; i < allTables.size(); i++) {
+				TableDef header = SchemaLoader.loadHeader(allTables.get(i));
+				headers.add(header);
+				reused[i] = reuse.test(header);
+				if (!reused[i]) {
+					tables.add(allTables.get(i));
+				}
+			}
+			stats.time(ExportStats.Phase.RENDER, () -> renderer.renderTableList(headers));
+			monitor.worked(1);
+
+			monitor.subTask("Loading catalog");
+			BulkMetadata metadata = tables.isEmpty() ? BulkMetadata.empty(stats)
+					: BulkMetadata.load(monitor, session, options, stats);
+			monitor.worked(1);
+
+			List<String> errors = renderTables(monitor, options, renderer, reuseTable, headers, tables, reused, metadata,
+					stats);
+			errors.addAll(metadata.getWarnings());
+			errors.addAll(renderRelationships(monitor, session, options, renderer, metadata.getRelationships(), stats));
+			return errors;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	// The foreign keys are part of the bulk catalog; they are only read here when it was not loaded.
+	// Returns one message per table whose foreign keys are missing from the sheet.
+	private static List<String> renderRelationships(DBRProgressMonitor monitor, MetaSession session,
+			ExportOptions options, Renderer renderer, Relationships loaded, ExportStats stats) {
+		if (!options.isRelationshipsSheet()) {
+			return List.of();
+		}
+		Relationships relationships = loaded;
+		if (relationships == null) {
+			monitor.subTask("Loading foreign keys");
+			relationships = stats.time(ExportStats.Phase.CATALOG,
+					() -> Relationships.load(monitor, session, options.getTableFilter()));
+			stats.addQueries(relationships == null ? 1 : relationships.getRequests());
+		}
+		if (relationships == null) {
+			return List.of("Relationships: the foreign keys could not be read");
+		}
+		Relationships foreignKeys = relationships;
+		stats.time(ExportStats.Phase.RENDER, () -> renderer.renderRelationships(foreignKeys));
+		return relationships.getUnresolvedTables().stream()
+				.map(tableKey -> tableKey + ": foreign keys are missing from the relationships sheet")
+				.toList();
+	}
+
+	private static List<String> renderTables(DBRProgressMonitor monitor, ExportOptions options, Renderer renderer,
+			Consumer<TableDef> reuseTable, List<TableDef> headers, List<CubridTable> tables, boolean[] reused,
+			BulkMetadata metadata, ExportStats stats) {
+		BlockingQueue<Future<TableDef>> queue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+		ExecutorService workers = ParallelFetcher.newWorkerPool(options.getParallelism());
+		DBRProgressMonitor workerMonitor = ParallelFetcher.workerMonitor(monitor);
+		Thread producer = Thread.ofVirtual().name("tabledef-producer").start(() -> {
+			try {
+				for (CubridTable table : tables) {
+					// Blocks while the renderer is 'queueCapacity' tables behind
+					queue.put(workers.submit(() -> SchemaLoader.loadTable(workerMonitor, table, metadata)));
+				}
+			} catch (InterruptedException | RejectedExecutionException e) {
+				// The renderer stopped, nothing left to hand over; the pool may already be shut down when the
+				// interrupt arrives between two tables
+			}
+		});
+
+		List<String> errors = new ArrayList<>();
+		try {
+			for (int i = 0; i < headers.size(); i++) {
+				TableDef header = headers.get(i);
+				TableDefinitionFetcher.checkCanceled(monitor);
+				monitor.subTask(header.getFullName() + " (" + (i + 1) + "/" + headers.size() + ")");
+				if (reused[i]) {
+					try {
+						stats.time(ExportStats.Phase.RENDER, () -> reuseTable.accept(header));
+						stats.addTable();
+					} catch (RuntimeException e) {
+						e.printStackTrace();
+						errors.add(header.getFullName() + ": " + e.getMessage());
+					}
+					monitor.worked(1);
+					continue;
+				}
+				TableDef table;
+				try {
+					table = awaitNext(monitor, queue);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof CancellationException cancellation) {
+						throw cancellation;
+					}
+					e.getCause().printStackTrace();
+					errors.add(header.getFullName() + ": " + e.getCause().getMessage());
+					monitor.worked(1);
+					continue;
+				}
+				stats.time(ExportStats.Phase.RENDER, () -> renderer.renderTable(table));
+				stats.addTable();
+				monitor.worked(1);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Export was interrupted", e);
+		} finally {
+			producer.interrupt();
+			workers.shutdownNow();
+		}
+		return errors;
+	}
+
+	// Waits for the next table in short slices so that a cancel request is noticed while a worker is busy
+	private static TableDef awaitNext(DBRProgressMonitor monitor, BlockingQueue<Future<TableDef>> queue)
+			throws InterruptedException, ExecutionException {
+		Future<TableDef> next;
+		while ((next = queue.poll(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+			TableDefinitionFetcher.checkCanceled(monitor);
+		}
+		while (true) {
+			try {
+				return next.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Timings and counters of one export. Phases run by the fetch workers are summed over all workers,
+// so they can add up to more than the wall time of the export.
+public final class ExportStats {
+	public enum Phase {
+		FINGERPRINTS("Fingerprints"),
+		SNAPSHOT("Snapshot read"),
+		TABLE_LIST("Table list"),
+		CATALOG("Bulk catalog"),
+		CONSTRAINTS("Constraints (workers)"),
+		COLUMNS("Columns (workers)"),
+		DDL("DDL (workers)"),
+		RENDER("Rendering"),
+		SAVE("Saving");
+
+		private final String label;
+
+		Phase(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() { return label; }
+	}
+
+	private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+	private final LongAdder queries = new LongAdder();
+	private final LongAdder rowsRead = new LongAdder();
+	private final LongAdder tables = new LongAdder();
+	private final LongAdder cells = new LongAdder();
+	private final LongAdder merges = new LongAdder();
+	private volatile long totalNanos;
+	private final LongAdder fileSize = new LongAdder();
+	private volatile boolean saved;
+
+	public ExportStats() {
+		for (Phase phase : Phase.values()) {
+			phaseNanos.put(phase, new LongAdder());
+		}
+	}
+
+	public <T> T time(Phase phase, Supplier<T> work) {
+		long start = System.nanoTime();
+		try {
+			return work.get();
+		} finally {
+			addTime(phase, System.nanoTime() - start);
+		}
+	}
+
+	public void addTime(Phase phase, long nanos) {
+		phaseNanos.get(phase).add(nanos);
+	}
+
+	public void time(Phase phase, Runnable work) {
+		time(phase, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	// One JDBC statement or one DBeaver metadata call
+	public void addQueries(int count) { queries.add(count); }
+	public void addRowsRead(long count) { rowsRead.add(count); }
+	public void addTable() { tables.increment(); }
+	public void addCells(long count) { cells.add(count); }
+	public void addMerges(long count) { merges.add(count); }
+	public void setTotalNanos(long totalNanos) { this.totalNanos = totalNanos; }
+	// A split export adds the size of every workbook it wrote
+	public void addFileSize(long bytes) {
+		fileSize.add(bytes);
+		saved = true;
+	}
+
+	// Rendering and saving of one workbook of a split export. Its tables were already counted
+	// when they were fetched, so only the writer side is added.
+	public void addWorkbook(ExportStats workbook) {
+		addTime(Phase.RENDER, workbook.phaseNanos.get(Phase.RENDER).sum());
+		addTime(Phase.SAVE, workbook.phaseNanos.get(Phase.SAVE).sum());
+		cells.add(workbook.getCells());
+		merges.add(workbook.getMerges());
+		if (workbook.saved) {
+			addFileSize(workbook.getFileSize());
+		}
+	}
+
+	public long getPhaseMillis(Phase phase) { return phaseNanos.get(phase).sum() / 1_000_000; }
+	public long getQueries() { return queries.sum(); }
+	public long getRowsRead() { return rowsRead.sum(); }
+	public long getTables() { return tables.sum(); }
+	public long getCells() { return cells.sum(); }
+	public long getMerges() { return merges.sum(); }
+	public long getTotalMillis() { return totalNanos / 1_000_000; }
+	// -1 until the workbook is saved
+	public long getFileSize() { return saved ? fileSize.sum() : -1; }
+
+	public String format() {
+		StringBuilder text = new StringBuilder();
+		text.append(String.format(Locale.ROOT, "Total: %,d ms, %,d tables%n", getTotalMillis(), getTables()));
+		for (Phase phase : Phase.values()) {
+			long millis = getPhaseMillis(phase);
+			if (millis > 0) {
+				text.append(String.format(Locale.ROOT, "  %s: %,d ms%n", phase.getLabel(), millis));
+			}
+		}
+		text.append(String.format(Locale.ROOT, "Queries: %,d, rows read: %,d%n", getQueries(), getRowsRead()));
+		text.append(String.format(Locale.ROOT, "Cells: %,d, merges: %,d", getCells(), getMerges()));
+		if (saved) {
+			text.append(String.format(Locale.ROOT, ", file: %,d bytes", getFileSize()));
+		}
+		return text.toString();
+	}
+
+	public String toJson() {
+		StringBuilder json = new StringBuilder("{\n");
+		json.append("  \"totalMillis\": ").append(getTotalMillis()).append(",\n");
+		json.append("  \"phases\": {");
+		Phase[] phases = Phase.values();
+		for (int i = 0; i < phases.length; i++) {
+			json.append(i == 0 ? "\n" : ",\n").append("    \"").append(phases[i].name().toLowerCase(Locale.ROOT))
+					.append("\": ").append(getPhaseMillis(phases[i]));
+		}
+		json.append("\n  },\n");
+		json.append("  \"tables\": ").append(getTables()).append(",\n");
+		json.append("  \"queries\": ").append(getQueries()).append(",\n");
+		json.append("  \"rowsRead\": ").append(getRowsRead()).append(",\n");
+		json.append("  \"cells\": ").append(getCells()).append(",\n");
+		json.append("  \"merges\": ").append(getMerges()).append(",\n");
+		json.append("  \"fileSize\": ").append(getFileSize()).append("\n}\n");
+		return json.toString();
+	}
+}
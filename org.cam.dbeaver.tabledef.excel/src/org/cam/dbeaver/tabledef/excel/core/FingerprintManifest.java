@@ -0,0 +1,68 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Table fingerprints of the last export, stored as <workbook>.manifest next to the workbook
+public final class FingerprintManifest {
+	private static final String LAYOUT_KEY = "@layout";
+
+	private final String layout;
+	private final Map<String, String> fingerprints;
+
+	public FingerprintManifest(String layout, Map<String, String> fingerprints) {
+		this.layout = layout;
+		this.fingerprints = Map.copyOf(fingerprints);
+	}
+
+	public String getLayout() { return layout; }
+	public Map<String, String> getFingerprints() { return fingerprints; }
+
+	public boolean isUnchanged(String tableKey, String fingerprint) {
+		return fingerprint != null && fingerprint.equals(fingerprints.get(tableKey));
+	}
+
+	public static Path getPath(String workbookPath) {
+		return Path.of(workbookPath + ".manifest");
+	}
+
+	// Null when there is no previous export or its manifest cannot be read
+	public static FingerprintManifest load(String workbookPath) {
+		Path path = getPath(workbookPath);
+		if (!Files.isRegularFile(path) || !Files.isRegularFile(Path.of(workbookPath))) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException | IllegalArgumentException e) {
+			e.printStackTrace();
+			return null;
+		}
+		Map<String, String> fingerprints = new HashMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			if (!LAYOUT_KEY.equals(key)) {
+				fingerprints.put(key, properties.getProperty(key));
+			}
+		}
+		return new FingerprintManifest(properties.getProperty(LAYOUT_KEY, ""), fingerprints);
+	}
+
+	public void save(String workbookPath) {
+		Properties properties = new Properties();
+		properties.putAll(fingerprints);
+		properties.setProperty(LAYOUT_KEY, layout);
+		try (Writer writer = Files.newBufferedWriter(getPath(workbookPath), StandardCharsets.UTF_8)) {
+			properties.store(writer, "Table definition fingerprints");
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to save export manifest: " + e.getMessage(), e);
+		}
+	}
+}
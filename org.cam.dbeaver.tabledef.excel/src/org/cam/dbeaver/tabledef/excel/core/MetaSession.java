@@ -0,0 +1,79 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// The meta session of one export run. It is opened by the first catalog query and every query after
+// that runs on it; statements are prepared once per SQL text and only rebound when they run again.
+// Closing it closes the statements and the session. Used by the exporting thread only.
+public final class MetaSession implements AutoCloseable {
+	private final DBRProgressMonitor monitor;
+	private final CubridDataSource dataSource;
+	private final Map<String, JDBCPreparedStatement> statements = new LinkedHashMap<>();
+	private JDBCSession session;
+
+	private MetaSession(DBRProgressMonitor monitor, CubridDataSource dataSource) {
+		this.monitor = monitor;
+		this.dataSource = dataSource;
+	}
+
+	public static MetaSession open(DBRProgressMonitor monitor, CubridDataSource dataSource) {
+		return new MetaSession(monitor, dataSource);
+	}
+
+	public CubridDataSource getDataSource() {
+		return dataSource;
+	}
+
+	// The result set must be closed by the caller, the statement stays open for the next run of the same query
+	JDBCResultSet executeQuery(String query, List<String> parameters) throws SQLException, DBCException {
+		JDBCPreparedStatement dbStat = statements.get(query);
+		if (dbStat == null) {
+			dbStat = getSession().prepareStatement(query);
+			statements.put(query, dbStat);
+		} else {
+			dbStat.clearParameters();
+		}
+		TableDefinitionFetcher.bind(dbStat, parameters);
+		return dbStat.executeQuery();
+	}
+
+	// The driver's imported keys request; the catalog views do not tell the referenced table of a foreign key.
+	// A null owner leaves the schema out of the request.
+	JDBCResultSet getImportedKeys(String owner, String tableName) throws SQLException, DBCException {
+		return getSession().getMetaData().getImportedKeys(null, owner, tableName);
+	}
+
+	private JDBCSession getSession() throws DBCException {
+		if (session == null) {
+			session = DBUtils.openMetaSession(monitor, dataSource, "Export Table Definitions");
+		}
+		return session;
+	}
+
+	@Override
+	public void close() {
+		for (JDBCPreparedStatement dbStat : statements.values()) {
+			try {
+				dbStat.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+		statements.clear();
+		if (session != null) {
+			session.close();
+			session = null;
+		}
+	}
+}
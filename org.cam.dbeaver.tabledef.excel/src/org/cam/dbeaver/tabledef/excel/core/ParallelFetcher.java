@@ -0,0 +1,63 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+public class ParallelFetcher {
+
+	// Runs the task for every item on at most 'parallelism' virtual threads; results keep the item order
+	public static <T, R> List<R> fetchAll(List<T> items, int parallelism, Function<T, R> task) {
+		List<R> results = new ArrayList<>(items.size());
+		if (parallelism <= 1 || items.size() <= 1) {
+			for (T item : items) {
+				results.add(task.apply(item));
+			}
+			return results;
+		}
+
+		ExecutorService executor = newWorkerPool(Math.min(parallelism, items.size()));
+		try {
+			List<Future<R>> futures = new ArrayList<>(items.size());
+			for (T item : items) {
+				futures.add(executor.submit(() -> task.apply(item)));
+			}
+			for (Future<R> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Metadata fetch was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException cancellation) {
+				throw cancellation;
+			}
+			throw new RuntimeException("Failed to fetch metadata: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	// Workers only follow cancellation; progress is reported by the thread that drives the export
+	static DBRProgressMonitor workerMonitor(DBRProgressMonitor monitor) {
+		return new VoidProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+	}
+
+	static ExecutorService newWorkerPool(int parallelism) {
+		return Executors.newFixedThreadPool(Math.max(parallelism, 1), Thread.ofVirtual().name("tabledef-fetch-", 0).factory());
+	}
+}
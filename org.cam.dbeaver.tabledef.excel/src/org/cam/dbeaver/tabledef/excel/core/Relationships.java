@@ -0,0 +1,308 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// The foreign keys of all exported tables, grouped in memory. Fan-out is the number of foreign keys a table
+// has, fan-in the number of foreign keys of exported tables that reference it.
+// The catalog views name the foreign keys of every table but not what they reference, so the rest comes from
+// the driver's imported keys: first one request for all tables, then one per table the first answer left
+// incomplete. JDBC does not define a pattern for the table argument, and a driver may answer "%" with nothing.
+public final class Relationships {
+	private final List<ForeignKey> foreignKeys;
+	// Keyed like getIndexes
+	private final Map<String, List<ForeignKey>> foreignKeysByTable;
+	// Tables whose foreign keys the driver did not return; callers read them through the DBeaver model
+	private final Set<String> unresolvedTables;
+	private final int requests;
+	private final Map<String, int[]> fanCounts = new TreeMap<>();
+
+	private Relationships(List<ForeignKey> foreignKeys, Map<String, List<ForeignKey>> foreignKeysByTable,
+			Set<String> unresolvedTables, int requests) {
+		this.foreignKeys = foreignKeys;
+		this.foreignKeysByTable = foreignKeysByTable;
+		this.unresolvedTables = unresolvedTables;
+		this.requests = requests;
+		for (ForeignKey foreignKey : foreignKeys) {
+			fanCounts.computeIfAbsent(foreignKey.getTableName(), k -> new int[2])[0]++;
+			fanCounts.computeIfAbsent(foreignKey.getReferencedTableName(), k -> new int[2])[1]++;
+		}
+	}
+
+	// Null when the catalog could not be read, so that the callers can fall back to the per-table DBeaver model
+	static Relationships load(DBRProgressMonitor monitor, MetaSession session, TableFilter filter) {
+		CubridDataSource dataSource = session.getDataSource();
+		boolean isSupportMultiSchema = dataSource.getSupportMultiSchema();
+		List<String> parameters = new ArrayList<>();
+		String query = "SELECT c.owner_name, c.class_name, i.index_name FROM db_index i\n"
+				+ "JOIN db_class c ON i.class_name = c.class_name\n"
+				+ (isSupportMultiSchema ? "AND i.owner_name = c.owner_name\n" : "")
+				+ "WHERE i.is_foreign_key = 'YES'\n"
+				+ TableDefinitionFetcher.andFilter(filter, parameters);
+		Builder builder = new Builder(isSupportMultiSchema);
+		try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(query), parameters)) {
+			while (dbResult.next()) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				builder.expect(JDBCUtils.safeGetString(dbResult, "owner_name"),
+						JDBCUtils.safeGetString(dbResult, "class_name"),
+						JDBCUtils.safeGetString(dbResult, "index_name"));
+			}
+		} catch (SQLException | DBCException e) {
+			e.printStackTrace();
+			return null;
+		}
+
+		int requests = 1;
+		if (!builder.isEmpty()) {
+			requests++;
+			try (JDBCResultSet dbResult = session.getImportedKeys(null, "%")) {
+				addRows(monitor, builder, dbResult, null);
+			} catch (SQLException | DBCException e) {
+				// Left to the requests per table
+				e.printStackTrace();
+			}
+			for (String tableKey : builder.getIncompleteTables()) {
+				builder.clear(tableKey);
+				requests++;
+				try (JDBCResultSet dbResult = session.getImportedKeys(
+						isSupportMultiSchema ? builder.getOwner(tableKey) : null, builder.getTableName(tableKey))) {
+					addRows(monitor, builder, dbResult, tableKey);
+				} catch (SQLException | DBCException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return builder.build(requests);
+	}
+
+	// 'tableKey' is the table the rows were asked for, null to take it from each row
+	private static void addRows(DBRProgressMonitor monitor, Builder builder, JDBCResultSet dbResult, String tableKey)
+			throws SQLException {
+		while (dbResult.next()) {
+			TableDefinitionFetcher.checkCanceled(monitor);
+			String owner = JDBCUtils.safeGetString(dbResult, "FKTABLE_SCHEM");
+			String tableName = JDBCUtils.safeGetString(dbResult, "FKTABLE_NAME");
+			builder.add(tableKey != null ? tableKey : builder.resolve(owner, tableName), owner, tableName,
+					JDBCUtils.safeGetString(dbResult, "FK_NAME"),
+					JDBCUtils.safeGetString(dbResult, "PKTABLE_SCHEM"),
+					JDBCUtils.safeGetString(dbResult, "PKTABLE_NAME"),
+					JDBCUtils.safeGetInt(dbResult, "DELETE_RULE"),
+					JDBCUtils.safeGetInt(dbResult, "UPDATE_RULE"),
+					JDBCUtils.safeGetString(dbResult, "FKCOLUMN_NAME"),
+					JDBCUtils.safeGetString(dbResult, "PKCOLUMN_NAME"));
+		}
+	}
+
+	// Foreign keys whose columns are complete, none of them unresolved
+	static Relationships of(List<ForeignKey> foreignKeys) {
+		return of(foreignKeys, Set.of(), 0);
+	}
+
+	private static Relationships of(List<ForeignKey> foreignKeys, Set<String> unresolvedTables, int requests) {
+		Map<String, List<ForeignKey>> foreignKeysByTable = new HashMap<>();
+		for (ForeignKey foreignKey : foreignKeys) {
+			foreignKeysByTable.computeIfAbsent(foreignKey.tableKey, k -> new ArrayList<>()).add(foreignKey);
+		}
+		List<ForeignKey> sorted = new ArrayList<>(foreignKeys);
+		sorted.sort((a, b) -> a.getTableName().equals(b.getTableName())
+				? String.valueOf(a.getName()).compareTo(String.valueOf(b.getName()))
+				: a.getTableName().compareTo(b.getTableName()));
+		return new Relationships(sorted, foreignKeysByTable, unresolvedTables, requests);
+	}
+
+	private static String getRule(int rule) {
+		return switch (rule) {
+			case DatabaseMetaData.importedKeyCascade -> "CASCADE";
+			case DatabaseMetaData.importedKeyRestrict -> "RESTRICT";
+			case DatabaseMetaData.importedKeySetNull -> "SET NULL";
+			case DatabaseMetaData.importedKeySetDefault -> "SET DEFAULT";
+			default -> "NO ACTION";
+		};
+	}
+
+	// Sorted by table and foreign key name
+	public List<ForeignKey> getForeignKeys() { return foreignKeys; }
+
+	// Null for an unresolved table
+	List<ForeignKey> getForeignKeys(String tableKey) {
+		if (unresolvedTables.contains(tableKey)) {
+			return null;
+		}
+		return foreignKeysByTable.getOrDefault(tableKey, List.of());
+	}
+
+	// Keyed like getIndexes, sorted
+	public List<String> getUnresolvedTables() {
+		return unresolvedTables.stream().sorted().toList();
+	}
+
+	// The catalog query and the driver requests
+	int getRequests() {
+		return requests;
+	}
+
+	// Tables with at least one foreign key or reference, sorted by name
+	public List<String> getLinkedTables() {
+		return new ArrayList<>(fanCounts.keySet());
+	}
+
+	public int getFanOut(String tableName) {
+		int[] counts = fanCounts.get(tableName);
+		return counts == null ? 0 : counts[0];
+	}
+
+	public int getFanIn(String tableName) {
+		int[] counts = fanCounts.get(tableName);
+		return counts == null ? 0 : counts[1];
+	}
+
+	// Groups imported key rows by table and foreign key name, for the tables the catalog lists with foreign keys
+	static final class Builder {
+		private final boolean isSupportMultiSchema;
+		// Upper-cased foreign key names per table, as the catalog lists them
+		private final Map<String, Set<String>> expected = new LinkedHashMap<>();
+		private final Map<String, String> owners = new HashMap<>();
+		private final Map<String, String> tableNames = new HashMap<>();
+		// Rows without an owner are matched by upper-cased name, unless tables of several owners share it
+		private final Map<String, String> keysByName = new HashMap<>();
+		private final Set<String> sharedNames = new HashSet<>();
+		private final Map<String, Map<String, ForeignKey>> foreignKeys = new HashMap<>();
+
+		Builder(boolean isSupportMultiSchema) {
+			this.isSupportMultiSchema = isSupportMultiSchema;
+		}
+
+		void expect(String owner, String tableName, String foreignKeyName) {
+			String tableKey = isSupportMultiSchema ? TableDefinitionFetcher.getTableKey(owner, tableName) : tableName;
+			expected.computeIfAbsent(tableKey, k -> new HashSet<>()).add(foreignKeyName.toUpperCase(Locale.ROOT));
+			owners.put(tableKey, owner);
+			tableNames.put(tableKey, tableName);
+			String upperName = tableName.toUpperCase(Locale.ROOT);
+			String known = keysByName.putIfAbsent(upperName, tableKey);
+			if (known != null && !known.equals(tableKey)) {
+				sharedNames.add(upperName);
+			}
+		}
+
+		boolean isEmpty() {
+			return expected.isEmpty();
+		}
+
+		String getOwner(String tableKey) { return owners.get(tableKey); }
+		String getTableName(String tableKey) { return tableNames.get(tableKey); }
+
+		// The key of a listed table, null for rows of other tables, which includes those the filter left out
+		String resolve(String owner, String tableName) {
+			if (tableName == null) {
+				return null;
+			}
+			if (owner == null || !isSupportMultiSchema) {
+				String upperName = tableName.toUpperCase(Locale.ROOT);
+				return sharedNames.contains(upperName) ? null : keysByName.get(upperName);
+			}
+			String tableKey = TableDefinitionFetcher.getTableKey(owner, tableName);
+			return expected.containsKey(tableKey) ? tableKey : null;
+		}
+
+		// One imported key row; rows are expected in key order
+		void add(String tableKey, String owner, String tableName, String name, String referencedOwner,
+				String referencedTable, int deleteRule, int updateRule, String column, String referencedColumn) {
+			if (tableKey == null || !expected.containsKey(tableKey) || name == null) {
+				return;
+			}
+			ForeignKey foreignKey = foreignKeys.computeIfAbsent(tableKey, k -> new LinkedHashMap<>()).get(name);
+			if (foreignKey == null) {
+				String displayName = isSupportMultiSchema ? tableKey
+						: owner == null ? tableName : owner + "." + tableName;
+				foreignKey = new ForeignKey(name, tableKey, displayName,
+						referencedOwner == null ? referencedTable : referencedOwner + "." + referencedTable,
+						getRule(deleteRule), getRule(updateRule));
+				foreignKeys.get(tableKey).put(name, foreignKey);
+			}
+			foreignKey.addColumn(column, referencedColumn);
+		}
+
+		// Tables with a foreign key the rows so far did not include
+		List<String> getIncompleteTables() {
+			List<String> incomplete = new ArrayList<>();
+			expected.forEach((tableKey, names) -> {
+				Set<String> found = new HashSet<>();
+				foreignKeys.getOrDefault(tableKey, Map.of()).keySet()
+						.forEach(name -> found.add(name.toUpperCase(Locale.ROOT)));
+				if (!found.containsAll(names)) {
+					incomplete.add(tableKey);
+				}
+			});
+			return incomplete;
+		}
+
+		// Drops the rows of a table before it is asked for again
+		void clear(String tableKey) {
+			foreignKeys.remove(tableKey);
+		}
+
+		// Tables still incomplete are left out and reported as unresolved
+		Relationships build(int requests) {
+			Set<String> unresolved = new HashSet<>(getIncompleteTables());
+			List<ForeignKey> complete = new ArrayList<>();
+			foreignKeys.forEach((tableKey, tableForeignKeys) -> {
+				if (!unresolved.contains(tableKey)) {
+					complete.addAll(tableForeignKeys.values());
+				}
+			});
+			return of(complete, unresolved, requests);
+		}
+	}
+
+	public static final class ForeignKey {
+		private final String name;
+		private final String tableKey;
+		private final String tableName;
+		private final String referencedTableName;
+		private final String onDelete;
+		private final String onUpdate;
+		// In key order; the driver returns the rows by KEY_SEQ
+		private final List<String> columns = new ArrayList<>();
+		private final List<String> referencedColumns = new ArrayList<>();
+
+		ForeignKey(String name, String tableKey, String tableName, String referencedTableName, String onDelete,
+				String onUpdate) {
+			this.name = name;
+			this.tableKey = tableKey;
+			this.tableName = tableName;
+			this.referencedTableName = referencedTableName;
+			this.onDelete = onDelete;
+			this.onUpdate = onUpdate;
+		}
+
+		void addColumn(String column, String referencedColumn) {
+			columns.add(column);
+			referencedColumns.add(referencedColumn);
+		}
+
+		public String getName() { return name; }
+		String getTableKey() { return tableKey; }
+		public String getTableName() { return tableName; }
+		public String getReferencedTableName() { return referencedTableName; }
+		public String getOnDelete() { return onDelete; }
+		public String getOnUpdate() { return onUpdate; }
+		public List<String> getColumns() { return Collections.unmodifiableList(columns); }
+		public List<String> getReferencedColumns() { return Collections.unmodifiableList(referencedColumns); }
+	}
+}
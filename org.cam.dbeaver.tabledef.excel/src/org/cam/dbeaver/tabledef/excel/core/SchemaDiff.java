@@ -0,0 +1,299 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.cam.dbeaver.tabledef.excel.core.ConstraintIndex.ForeignKeyRef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexColumn;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// What changed between two sets of table definitions. Tables are matched by owner.table in a hash map and
+// compared by a content hash first; only tables whose hash differs are compared column by column and index
+// by index, again through per-column hashes. The DDL text is left out: it follows from the columns and
+// indexes, and differs between the DDL sources even when the tables are the same.
+public final class SchemaDiff {
+	public enum Kind {
+		ADDED("Added"),
+		DROPPED("Dropped"),
+		ALTERED("Altered");
+
+		private final String label;
+
+		Kind(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() { return label; }
+	}
+
+	public enum ObjectType {
+		TABLE("Table"),
+		COLUMN("Column"),
+		INDEX("Index");
+
+		private final String label;
+
+		ObjectType(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() { return label; }
+	}
+
+	private static final List<Attribute> COLUMN_ATTRIBUTES = List.of(
+			new Attribute("Type", ColumnDef::getTypeName),
+			new Attribute("Length", column -> String.valueOf(column.getMaxLength())),
+			new Attribute("Not null", column -> column.isRequired() ? "Y" : ""),
+			new Attribute("Default", ColumnDef::getDefaultValue),
+			new Attribute("Comment", ColumnDef::getDescription),
+			new Attribute("PK", ColumnDef::getPrimaryKeyLabel),
+			new Attribute("UK", ColumnDef::getUniqueKeyLabel),
+			new Attribute("FK", SchemaDiff::getForeignKeyTarget));
+
+	private final List<Change> changes;
+	private final Map<ObjectType, int[]> counts = new EnumMap<>(ObjectType.class);
+	private final int tablesBefore;
+	private final int tablesAfter;
+	private final int alteredTables;
+
+	private SchemaDiff(List<Change> changes, int tablesBefore, int tablesAfter, int alteredTables) {
+		this.changes = changes;
+		this.tablesBefore = tablesBefore;
+		this.tablesAfter = tablesAfter;
+		this.alteredTables = alteredTables;
+		for (ObjectType type : ObjectType.values()) {
+			counts.put(type, new int[Kind.values().length]);
+		}
+		for (Change change : changes) {
+			counts.get(change.getObjectType())[change.getKind().ordinal()]++;
+		}
+	}
+
+	public static SchemaDiff compare(List<TableDef> before, List<TableDef> after) {
+		Map<String, TableDef> beforeByName = new HashMap<>(before.size() * 2);
+		for (TableDef table : before) {
+			beforeByName.put(table.getFullName(), table);
+		}
+		List<Change> changes = new ArrayList<>();
+		Set<String> matched = new HashSet<>(after.size() * 2);
+		int alteredTables = 0;
+		for (TableDef table : after) {
+			TableDef previous = beforeByName.get(table.getFullName());
+			matched.add(table.getFullName());
+			if (previous == null) {
+				changes.add(new Change(Kind.ADDED, ObjectType.TABLE, table.getFullName(), "", "", "",
+						table.getColumns().size() + " columns"));
+			} else if (!hashTable(previous).equals(hashTable(table))) {
+				// Indexes listed in another order change the hash without being a change
+				int known = changes.size();
+				compareTable(previous, table, changes);
+				if (changes.size() > known) {
+					alteredTables++;
+				}
+			}
+		}
+		for (TableDef table : before) {
+			if (!matched.contains(table.getFullName())) {
+				changes.add(new Change(Kind.DROPPED, ObjectType.TABLE, table.getFullName(), "", "",
+						table.getColumns().size() + " columns", ""));
+			}
+		}
+		// Dropped tables were appended last; the table name brings them in line, the stable sort keeps the rest
+		changes.sort(Comparator.comparing(Change::getTableName));
+		return new SchemaDiff(changes, before.size(), after.size(), alteredTables);
+	}
+
+	private static void compareTable(TableDef before, TableDef after, List<Change> changes) {
+		String tableName = after.getFullName();
+		if (!equal(before.getDescription(), after.getDescription())) {
+			changes.add(new Change(Kind.ALTERED, ObjectType.TABLE, tableName, "", "Comment",
+					before.getDescription(), after.getDescription()));
+		}
+
+		Map<String, ColumnDef> beforeColumns = new LinkedHashMap<>();
+		before.getColumns().forEach(column -> beforeColumns.put(column.getName(), column));
+		for (ColumnDef column : after.getColumns()) {
+			ColumnDef previous = beforeColumns.remove(column.getName());
+			if (previous == null) {
+				changes.add(new Change(Kind.ADDED, ObjectType.COLUMN, tableName, column.getName(), "", "",
+						describe(column)));
+			} else if (!hashColumn(previous).equals(hashColumn(column))) {
+				for (Attribute attribute : COLUMN_ATTRIBUTES) {
+					String beforeValue = attribute.value(previous);
+					String afterValue = attribute.value(column);
+					if (!beforeValue.equals(afterValue)) {
+						changes.add(new Change(Kind.ALTERED, ObjectType.COLUMN, tableName, column.getName(),
+								attribute.label, beforeValue, afterValue));
+					}
+				}
+			}
+		}
+		for (ColumnDef column : beforeColumns.values()) {
+			changes.add(new Change(Kind.DROPPED, ObjectType.COLUMN, tableName, column.getName(), "", describe(column), ""));
+		}
+		// Columns on both sides that changed places; added and dropped columns do not count as a move
+		List<String> beforeOrder = new ArrayList<>();
+		Set<String> shared = new HashSet<>();
+		for (ColumnDef column : before.getColumns()) {
+			if (!beforeColumns.containsKey(column.getName())) {
+				beforeOrder.add(column.getName());
+				shared.add(column.getName());
+			}
+		}
+		List<String> afterOrder = new ArrayList<>(beforeOrder.size());
+		for (ColumnDef column : after.getColumns()) {
+			if (shared.contains(column.getName())) {
+				afterOrder.add(column.getName());
+			}
+		}
+		if (!beforeOrder.equals(afterOrder)) {
+			changes.add(new Change(Kind.ALTERED, ObjectType.TABLE, tableName, "", "Column order",
+					String.join(", ", beforeOrder), String.join(", ", afterOrder)));
+		}
+
+		Map<String, String> beforeIndexes = new LinkedHashMap<>();
+		before.getIndexes().forEach(index -> beforeIndexes.put(index.getIndexName(), describe(index)));
+		for (IndexKey index : after.getIndexes()) {
+			String previous = beforeIndexes.remove(index.getIndexName());
+			String current = describe(index);
+			if (previous == null) {
+				changes.add(new Change(Kind.ADDED, ObjectType.INDEX, tableName, index.getIndexName(), "", "", current));
+			} else if (!previous.equals(current)) {
+				changes.add(new Change(Kind.ALTERED, ObjectType.INDEX, tableName, index.getIndexName(), "Columns",
+						previous, current));
+			}
+		}
+		beforeIndexes.forEach((indexName, columns) ->
+				changes.add(new Change(Kind.DROPPED, ObjectType.INDEX, tableName, indexName, "", columns, "")));
+	}
+
+	static String hashTable(TableDef table) {
+		MessageDigest digest = newDigest();
+		update(digest, table.getDescription());
+		for (ColumnDef column : table.getColumns()) {
+			update(digest, column.getName());
+			update(digest, hashColumn(column));
+		}
+		for (IndexKey index : table.getIndexes()) {
+			update(digest, index.getIndexName());
+			update(digest, describe(index));
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	static String hashColumn(ColumnDef column) {
+		MessageDigest digest = newDigest();
+		for (Attribute attribute : COLUMN_ATTRIBUTES) {
+			update(digest, attribute.value(column));
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update((value == null ? "\0" : value + "\u001f").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String getForeignKeyTarget(ColumnDef column) {
+		ForeignKeyRef ref = column.getForeignKeyRef();
+		if (ref != null && ref.getReferencedTable() != null) {
+			return ref.getReferencedTable() + "." + ref.getReferencedColumn();
+		}
+		return column.isForeignKey() ? "Y" : "";
+	}
+
+	private static String describe(ColumnDef column) {
+		String type = column.getTypeName() == null ? "" : column.getTypeName();
+		return column.getMaxLength() > 0 ? type + "(" + column.getMaxLength() + ")" : type;
+	}
+
+	private static String describe(IndexKey index) {
+		return index.getColumns().stream()
+				.sorted(Comparator.comparingInt(IndexColumn::getOrdering))
+				.map(IndexColumn::getColumnName)
+				.collect(Collectors.joining(", "));
+	}
+
+	private static boolean equal(String a, String b) {
+		return (a == null ? "" : a).equals(b == null ? "" : b);
+	}
+
+	public List<Change> getChanges() { return changes; }
+	public int getTablesBefore() { return tablesBefore; }
+	public int getTablesAfter() { return tablesAfter; }
+	// Tables on both sides with at least one change
+	public int getAlteredTables() { return alteredTables; }
+
+	public int getCount(ObjectType type, Kind kind) {
+		return counts.get(type)[kind.ordinal()];
+	}
+
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	// One row of the diff; before and after are empty for the side the object does not exist on
+	public static final class Change {
+		private final Kind kind;
+		private final ObjectType objectType;
+		private final String tableName;
+		private final String objectName;
+		private final String attribute;
+		private final String before;
+		private final String after;
+
+		Change(Kind kind, ObjectType objectType, String tableName, String objectName, String attribute,
+				String before, String after) {
+			this.kind = kind;
+			this.objectType = objectType;
+			this.tableName = tableName;
+			this.objectName = objectName;
+			this.attribute = attribute;
+			this.before = before == null ? "" : before;
+			this.after = after == null ? "" : after;
+		}
+
+		public Kind getKind() { return kind; }
+		public ObjectType getObjectType() { return objectType; }
+		public String getTableName() { return tableName; }
+		public String getObjectName() { return objectName; }
+		public String getAttribute() { return attribute; }
+		public String getBefore() { return before; }
+		public String getAfter() { return after; }
+	}
+
+	private static final class Attribute {
+		final String label;
+		final Function<ColumnDef, String> getter;
+
+		Attribute(String label, Function<ColumnDef, String> getter) {
+			this.label = label;
+			this.getter = getter;
+		}
+
+		String value(ColumnDef column) {
+			String value = getter.apply(column);
+			return value == null ? "" : value;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridTable;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridTableColumn;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+public class SchemaLoader {
+
+	// Everything the renderers need is read here, so rendering never goes back to the server
+	public static SchemaSnapshot load(CubridDataSource dataSource) {
+		return load(dataSource, new ExportOptions());
+	}
+
+	public static SchemaSnapshot load(CubridDataSource dataSource, ExportOptions options) {
+		return load(new VoidProgressMonitor(), dataSource, options);
+	}
+
+	public static SchemaSnapshot load(DBRProgressMonitor monitor, CubridDataSource dataSource, ExportOptions options) {
+		BulkMetadata metadata;
+		try (MetaSession session = MetaSession.open(monitor, dataSource)) {
+			metadata = BulkMetadata.load(monitor, session, options, new ExportStats());
+		}
+		List<CubridTable> tables = TableDefinitionFetcher.getTables(monitor, dataSource, options.getTableFilter());
+		DBRProgressMonitor workerMonitor = ParallelFetcher.workerMonitor(monitor);
+		return new SchemaSnapshot(ParallelFetcher.fetchAll(tables, options.getParallelism(),
+				table -> loadTable(workerMonitor, table, metadata)));
+	}
+
+	// Name and description only, enough for the table list
+	static TableDef loadHeader(CubridTable table) {
+		return new TableDef(table.getSchema().getName(), table.getName(), table.getDescription(), List.of(), List.of(), "");
+	}
+
+	static TableDef loadTable(DBRProgressMonitor monitor, CubridTable table, BulkMetadata metadata) {
+		TableDefinitionFetcher.checkCanceled(monitor);
+		ExportStats stats = metadata.getStats();
+		String tableKey = TableDefinitionFetcher.getTableKey(table);
+		// One request for the constraints, and one for the foreign keys unless they were read in bulk
+		Relationships relationships = metadata.getRelationships();
+		stats.addQueries(relationships == null || relationships.getForeignKeys(tableKey) == null ? 2 : 1);
+		ConstraintIndex constraints = stats.time(ExportStats.Phase.CONSTRAINTS,
+				() -> TableDefinitionFetcher.getConstraintIndex(monitor, table, relationships));
+		List<ColumnDef> columns = new ArrayList<>();
+		// Every table has a column, so a table missing from the bulk columns was not read with them
+		List<ColumnDef> bulkColumns = metadata.getColumns() == null ? null : metadata.getColumns().get(tableKey);
+		if (bulkColumns != null) {
+			for (ColumnDef column : bulkColumns) {
+				String columnName = column.getName();
+				columns.add(column.withKeys(
+						constraints.getPrimaryKeyOrdinal(columnName),
+						constraints.getUniqueKeyOrdinals(columnName),
+						constraints.getForeignKey(columnName)));
+			}
+		} else {
+			List<CubridTableColumn> tableColumns = stats.time(ExportStats.Phase.COLUMNS,
+					() -> TableDefinitionFetcher.getColumns(monitor, table));
+			stats.addQueries(1);
+			stats.addRowsRead(tableColumns.size());
+			for (CubridTableColumn column : tableColumns) {
+				String columnName = column.getName();
+				columns.add(new ColumnDef(
+						columnName,
+						column.getTypeName(),
+						column.getMaxLength(),
+						column.isRequired(),
+						column.getDefaultValue(),
+						column.getDescription(),
+						constraints.getPrimaryKeyOrdinal(columnName),
+						constraints.getUniqueKeyOrdinals(columnName),
+						column.isForeignKey(),
+						constraints.getForeignKey(columnName)));
+			}
+		}
+		DdlSynthesizer ddl = metadata.getDdl();
+		if (ddl == null || ddl.isComparing()) {
+			stats.addQueries(1);
+		}
+		String ddlText = stats.time(ExportStats.Phase.DDL, () -> ddl == null
+				? TableDefinitionFetcher.getDDL(monitor, table)
+				: ddl.getDDL(monitor, table, table.getDescription(), columns));
+		return new TableDef(
+				table.getSchema().getName(),
+				table.getName(),
+				table.getDescription(),
+				columns,
+				metadata.getIndexes().getOrDefault(tableKey, List.of()),
+				ddlText);
+	}
+}
@@ -0,0 +1,17 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.List;
+
+// The tables of one export, fully loaded. Nothing here refers to DBeaver, so the renderers
+// can be driven from definitions built in memory; SchemaLoader reads them from a data source.
+public final class SchemaSnapshot {
+	private final List<TableDef> tables;
+
+	public SchemaSnapshot(List<TableDef> tables) {
+		this.tables = List.copyOf(tables);
+	}
+
+	public List<TableDef> getTables() {
+		return tables;
+	}
+}
@@ -0,0 +1,461 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.cam.dbeaver.tabledef.excel.core.ConstraintIndex.ForeignKeyRef;
+import org.cam.dbeaver.tabledef.excel.core.Relationships.ForeignKey;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexColumn;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+// The TableDefs of the last export of a data source, kept as a deflated binary file in the cache directory.
+// The file name is a hash of the connection, the database and everything that changes the fetched content
+// (table filter, DDL source, relationships sheet). Within the TTL a snapshot is replayed without a single query. After that the
+// catalog fingerprint stored with it is compared to the live one, and only a changed catalog is fetched again.
+// Snapshots are written while an export runs and only kept when every table made it into the file.
+// The foreign keys of the relationships sheet follow the tables, so a replay does not read them either.
+public final class SnapshotCache {
+	private static final int MAGIC = 0x54444331; // TDC1
+	private static final int VERSION = 2;
+
+	private final Path file;
+	private final ExportOptions options;
+
+	private SnapshotCache(Path file, ExportOptions options) {
+		this.file = file;
+		this.options = options;
+	}
+
+	// Null when the cache is turned off
+	static SnapshotCache forExport(CubridDataSource dataSource, ExportOptions options) {
+		if (options.getCacheTtlMinutes() <= 0) {
+			return null;
+		}
+		TableFilter filter = options.getTableFilter();
+		String key = String.join("\u001f", dataSource.getContainer().getId(),
+				String.valueOf(dataSource.getContainer().getConnectionConfiguration().getDatabaseName()),
+				String.valueOf(filter.getOwners()), String.valueOf(filter.getIncludes()),
+				String.valueOf(filter.getExcludes()), String.valueOf(filter.getTables()),
+				options.getDdlSource().name(), String.valueOf(options.isBulkColumns()),
+				String.valueOf(options.isRelationshipsSheet()));
+		return new SnapshotCache(options.getCacheDir().resolve(hash(key).substring(0, 32) + ".snapshot"), options);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	// A snapshot read in full, whatever its age; used as one side of a schema compare
+	public static List<TableDef> read(Path file) throws IOException {
+		try (DataInputStream in = open(file)) {
+			readString(in);
+			int count = in.readInt();
+			List<TableDef> headers = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				headers.add(new TableDef(readString(in), readString(in), readNullable(in), List.of(), List.of(), ""));
+			}
+			List<TableDef> tables = new ArrayList<>(count);
+			for (TableDef header : headers) {
+				tables.add(readTable(in, header));
+			}
+			return tables;
+		}
+	}
+
+	// Writes tables outside the cache, without a catalog version, so the file is never taken for a valid cache entry
+	public static void write(Path file, List<TableDef> tables) throws IOException {
+		OutputStream stream = new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, "");
+			out.writeInt(tables.size());
+			for (TableDef table : tables) {
+				writeString(out, table.getSchemaName());
+				writeString(out, table.getName());
+				writeNullable(out, table.getDescription());
+			}
+			for (TableDef table : tables) {
+				writeTable(out, table);
+			}
+			out.writeBoolean(false);
+		}
+	}
+
+	// Renders the snapshot when it is still valid and returns no errors; null when the export has to go live.
+	// A live catalog version the caller already has is checked whatever the snapshot's age: an incremental
+	// export records the live fingerprints with the tables, so they must not come from an older catalog.
+	List<String> replay(DBRProgressMonitor monitor, MetaSession session, ExportPipeline.Renderer renderer,
+			Predicate<TableDef> reuse, Consumer<TableDef> reuseTable, String liveCatalogVersion, ExportStats stats) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (DataInputStream in = open(file)) {
+			// The file time is when the snapshot was written or last found to match the catalog
+			long ageMillis = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+			String catalogVersion = readString(in);
+			if (liveCatalogVersion != null) {
+				if (catalogVersion.isEmpty() || !catalogVersion.equals(liveCatalogVersion)) {
+					return null;
+				}
+			} else if (ageMillis > options.getCacheTtlMinutes() * 60_000L) {
+				monitor.subTask("Checking catalog version");
+				if (catalogVersion.isEmpty() || !catalogVersion.equals(getCatalogVersion(monitor, session, stats))) {
+					return null;
+				}
+				Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			}
+			try {
+				replayTables(monitor, in, renderer, reuse, reuseTable, stats);
+			} catch (IOException e) {
+				// Part of it may already be rendered, so it is too late to fall back to the database
+				Files.deleteIfExists(file);
+				throw new RuntimeException("Failed to read metadata snapshot: " + e.getMessage(), e);
+			}
+			return new ArrayList<>();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static DataInputStream open(Path file) throws IOException {
+		InputStream stream = new InflaterInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a table definition snapshot: " + file);
+			}
+			return in;
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	private static void replayTables(DBRProgressMonitor monitor, DataInputStream in, ExportPipeline.Renderer renderer,
+			Predicate<TableDef> reuse, Consumer<TableDef> reuseTable, ExportStats stats) throws IOException {
+		long readStart = System.nanoTime();
+		int count = in.readInt();
+		List<TableDef> headers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			headers.add(new TableDef(readString(in), readString(in), readNullable(in), List.of(), List.of(), ""));
+		}
+		stats.addTime(ExportStats.Phase.SNAPSHOT, System.nanoTime() - readStart);
+		monitor.beginTask("Exporting table definitions from snapshot", count + 1);
+		try {
+			stats.time(ExportStats.Phase.RENDER, () -> renderer.renderTableList(headers));
+			monitor.worked(1);
+			for (int i = 0; i < count; i++) {
+				TableDefinitionFetcher.checkCanceled(monitor);
+				TableDef header = headers.get(i);
+				monitor.subTask(header.getFullName() + " (" + (i + 1) + "/" + count + ")");
+				readStart = System.nanoTime();
+				TableDef table = readTable(in, header);
+				stats.addTime(ExportStats.Phase.SNAPSHOT, System.nanoTime() - readStart);
+				if (reuse.test(header)) {
+					stats.time(ExportStats.Phase.RENDER, () -> reuseTable.accept(header));
+				} else {
+					stats.time(ExportStats.Phase.RENDER, () -> renderer.renderTable(table));
+				}
+				stats.addTable();
+				monitor.worked(1);
+			}
+			// Only there when the export that wrote the snapshot had a relationships sheet, and so does this one
+			if (in.readBoolean()) {
+				readStart = System.nanoTime();
+				Relationships relationships = readRelationships(in);
+				stats.addTime(ExportStats.Phase.SNAPSHOT, System.nanoTime() - readStart);
+				stats.time(ExportStats.Phase.RENDER, () -> renderer.renderRelationships(relationships));
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	// Catches what an export renders; commit() moves the file in place, anything else leaves the old snapshot
+	// 'liveCatalogVersion' is null when the caller has not read the fingerprints
+	Recorder record(DBRProgressMonitor monitor, MetaSession session, ExportPipeline.Renderer renderer,
+			String liveCatalogVersion, ExportStats stats) {
+		return new Recorder(liveCatalogVersion != null ? liveCatalogVersion : getCatalogVersion(monitor, session, stats),
+				renderer);
+	}
+
+	private String getCatalogVersion(DBRProgressMonitor monitor, MetaSession session, ExportStats stats) {
+		return getCatalogVersion(stats.time(ExportStats.Phase.FINGERPRINTS,
+				() -> TableDefinitionFetcher.getFingerprints(monitor, session, options.getTableFilter(), stats)));
+	}
+
+	// One hash over the per-table fingerprints; empty when the catalog could not be read
+	static String getCatalogVersion(Map<String, String> fingerprints) {
+		if (fingerprints.isEmpty()) {
+			return "";
+		}
+		StringBuilder all = new StringBuilder();
+		new TreeMap<>(fingerprints).forEach((table, fingerprint) -> all.append(table).append('=').append(fingerprint).append('\n'));
+		return hash(all.toString());
+	}
+
+	final class Recorder implements ExportPipeline.Renderer {
+		private final ExportPipeline.Renderer target;
+		private final Path temp;
+		private DataOutputStream out;
+		private boolean complete = true;
+		private boolean relationships;
+		private int pending;
+
+		private Recorder(String catalogVersion, ExportPipeline.Renderer target) {
+			this.target = target;
+			Path tempFile = null;
+			try {
+				Files.createDirectories(file.getParent());
+				tempFile = Files.createTempFile(file.getParent(), "snapshot", ".tmp");
+				OutputStream stream = new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16));
+				out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeString(out, catalogVersion);
+			} catch (IOException e) {
+				e.printStackTrace();
+				complete = false;
+			}
+			this.temp = tempFile;
+		}
+
+		@Override
+		public void renderTableList(List<TableDef> tables) {
+			pending = tables.size();
+			write(() -> {
+				out.writeInt(tables.size());
+				for (TableDef table : tables) {
+					writeString(out, table.getSchemaName());
+					writeString(out, table.getName());
+					writeNullable(out, table.getDescription());
+				}
+			});
+			target.renderTableList(tables);
+		}
+
+		@Override
+		public void renderTable(TableDef table) {
+			write(() -> writeTable(out, table));
+			pending--;
+			target.renderTable(table);
+		}
+
+		// Only called when every foreign key was read; the snapshot is not kept otherwise
+		@Override
+		public void renderRelationships(Relationships relationships) {
+			write(() -> {
+				out.writeBoolean(true);
+				writeRelationships(out, relationships);
+			});
+			this.relationships = true;
+			target.renderRelationships(relationships);
+		}
+
+		// Keeps the snapshot when every table was written to it; reused tables never reach the recorder
+		void commit() {
+			if (!relationships) {
+				write(() -> out.writeBoolean(false));
+			}
+			if (complete && pending == 0) {
+				try {
+					out.close();
+					out = null;
+					Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					return;
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			discard();
+		}
+
+		void discard() {
+			try {
+				if (out != null) {
+					out.close();
+				}
+				if (temp != null) {
+					Files.deleteIfExists(temp);
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		private void write(SnapshotWork work) {
+			if (!complete) {
+				return;
+			}
+			try {
+				work.run();
+			} catch (IOException e) {
+				e.printStackTrace();
+				complete = false;
+			}
+		}
+	}
+
+	private interface SnapshotWork {
+		void run() throws IOException;
+	}
+
+	private static void writeTable(DataOutputStream out, TableDef table) throws IOException {
+		out.writeInt(table.getColumns().size());
+		for (ColumnDef column : table.getColumns()) {
+			writeString(out, column.getName());
+			writeNullable(out, column.getTypeName());
+			out.writeLong(column.getMaxLength());
+			out.writeBoolean(column.isRequired());
+			writeNullable(out, column.getDefaultValue());
+			writeNullable(out, column.getDescription());
+			out.writeInt(column.getPrimaryKeyOrdinal());
+			out.writeInt(column.getUniqueKeyOrdinals().size());
+			for (int ordinal : column.getUniqueKeyOrdinals()) {
+				out.writeInt(ordinal);
+			}
+			out.writeBoolean(column.isForeignKey());
+			ForeignKeyRef ref = column.getForeignKeyRef();
+			out.writeBoolean(ref != null);
+			if (ref != null) {
+				out.writeInt(ref.getOrdinal());
+				writeNullable(out, ref.getReferencedTable());
+				writeNullable(out, ref.getReferencedColumn());
+			}
+		}
+		out.writeInt(table.getIndexes().size());
+		for (IndexKey index : table.getIndexes()) {
+			writeString(out, index.getIndexName());
+			out.writeInt(index.getColumns().size());
+			for (IndexColumn column : index.getColumns()) {
+				writeString(out, column.getColumnName());
+				out.writeInt(column.getOrdering());
+			}
+		}
+		writeNullable(out, table.getDDL());
+	}
+
+	private static TableDef readTable(DataInputStream in, TableDef header) throws IOException {
+		int columnCount = in.readInt();
+		List<ColumnDef> columns = new ArrayList<>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			String name = readString(in);
+			String typeName = readNullable(in);
+			long maxLength = in.readLong();
+			boolean required = in.readBoolean();
+			String defaultValue = readNullable(in);
+			String description = readNullable(in);
+			int primaryKeyOrdinal = in.readInt();
+			int uniqueCount = in.readInt();
+			List<Integer> uniqueKeyOrdinals = new ArrayList<>(uniqueCount);
+			for (int u = 0; u < uniqueCount; u++) {
+				uniqueKeyOrdinals.add(in.readInt());
+			}
+			boolean foreignKey = in.readBoolean();
+			ForeignKeyRef ref = in.readBoolean() ? new ForeignKeyRef(in.readInt(), readNullable(in), readNullable(in)) : null;
+			columns.add(new ColumnDef(name, typeName, maxLength, required, defaultValue, description, primaryKeyOrdinal,
+					uniqueKeyOrdinals, foreignKey, ref));
+		}
+		int indexCount = in.readInt();
+		List<IndexKey> indexes = new ArrayList<>(indexCount);
+		for (int i = 0; i < indexCount; i++) {
+			IndexKey index = new IndexKey(readString(in));
+			int keyCount = in.readInt();
+			for (int k = 0; k < keyCount; k++) {
+				index.addColumn(readString(in), in.readInt());
+			}
+			indexes.add(index);
+		}
+		return new TableDef(header.getSchemaName(), header.getName(), header.getDescription(), columns, indexes,
+				readNullable(in));
+	}
+
+	private static void writeRelationships(DataOutputStream out, Relationships relationships) throws IOException {
+		out.writeInt(relationships.getForeignKeys().size());
+		for (ForeignKey foreignKey : relationships.getForeignKeys()) {
+			writeNullable(out, foreignKey.getName());
+			writeString(out, foreignKey.getTableKey());
+			writeString(out, foreignKey.getTableName());
+			writeNullable(out, foreignKey.getReferencedTableName());
+			writeNullable(out, foreignKey.getOnDelete());
+			writeNullable(out, foreignKey.getOnUpdate());
+			out.writeInt(foreignKey.getColumns().size());
+			for (int i = 0; i < foreignKey.getColumns().size(); i++) {
+				writeNullable(out, foreignKey.getColumns().get(i));
+				writeNullable(out, foreignKey.getReferencedColumns().get(i));
+			}
+		}
+	}
+
+	private static Relationships readRelationships(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		List<ForeignKey> foreignKeys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ForeignKey foreignKey = new ForeignKey(readNullable(in), readString(in), readString(in), readNullable(in),
+					readNullable(in), readNullable(in));
+			int columnCount = in.readInt();
+			for (int c = 0; c < columnCount; c++) {
+				foreignKey.addColumn(readNullable(in), readNullable(in));
+			}
+			foreignKeys.add(foreignKey);
+		}
+		return Relationships.of(foreignKeys);
+	}
+
+	// Length-prefixed UTF-8; writeUTF stops at 64 KB, which a DDL text can exceed
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeNullable(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			writeString(out, value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String readNullable(DataInputStream in) throws IOException {
+		return in.readBoolean() ? readString(in) : null;
+	}
+
+	private static String hash(String value) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
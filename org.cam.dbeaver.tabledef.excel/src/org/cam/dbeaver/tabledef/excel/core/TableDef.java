@@ -0,0 +1,32 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+public final class TableDef {
+	private final String schemaName;
+	private final String name;
+	private final String description;
+	private final List<ColumnDef> columns;
+	private final List<IndexKey> indexes;
+	private final String ddl;
+
+	public TableDef(String schemaName, String name, String description, List<ColumnDef> columns,
+			List<IndexKey> indexes, String ddl) {
+		this.schemaName = schemaName;
+		this.name = name;
+		this.description = description;
+		this.columns = List.copyOf(columns);
+		this.indexes = List.copyOf(indexes);
+		this.ddl = ddl;
+	}
+
+	public String getSchemaName() { return schemaName; }
+	public String getName() { return name; }
+	public String getFullName() { return schemaName + "." + name; }
+	public String getDescription() { return description; }
+	public List<ColumnDef> getColumns() { return columns; }
+	public List<IndexKey> getIndexes() { return indexes; }
+	public String getDDL() { return ddl; }
+}
@@ -1,12 +1,18 @@
 package org.cam.dbeaver.tabledef.excel.core;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
 
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
@@ -14,27 +20,44 @@ import org.jkiss.dbeaver.ext.cubrid.model.CubridTable;
 import org.jkiss.dbeaver.ext.cubrid.model.CubridTableColumn;
 import org.jkiss.dbeaver.ext.cubrid.model.CubridUser;
 import org.jkiss.dbeaver.ext.generic.model.GenericSchema;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableBase;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableColumn;
 import org.jkiss.dbeaver.ext.generic.model.GenericTableConstraintColumn;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableForeignKey;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableForeignKeyColumnTable;
 import org.jkiss.dbeaver.ext.generic.model.GenericUniqueKey;
-import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
-import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSEntityConstraintType;
 
 public class TableDefinitionFetcher {
-	private static final DBRProgressMonitor monitor = new VoidProgressMonitor();
+	public static List<CubridTable> getTables(DBRProgressMonitor monitor, CubridDataSource dataSource) {
+		return getTables(monitor, dataSource, TableFilter.ALL);
+	}
+
+	public static List<CubridTable> getTables(DBRProgressMonitor monitor, CubridDataSource dataSource, TableFilter filter) {
+		return getTables(monitor, dataSource, filter, new ExportStats());
+	}
 
-	public static List<CubridTable> getTables(CubridDataSource dataSource) {
+	// Owners outside the filter are skipped before their tables are read. Counts one query for the owners
+	// and one per owner whose tables were read.
+	public static List<CubridTable> getTables(DBRProgressMonitor monitor, CubridDataSource dataSource, TableFilter filter,
+			ExportStats stats) {
     	List<CubridTable> tables = new ArrayList<>();
     	try {
+			stats.addQueries(1);
 			for (GenericSchema schema : dataSource.getCubridUsers(monitor)) {
-				if (schema instanceof CubridUser user) {
-					tables.addAll(user.getPhysicalTables(monitor));
+				checkCanceled(monitor);
+				if (schema instanceof CubridUser user && filter.acceptsOwner(user.getName())) {
+					stats.addQueries(1);
+					for (CubridTable table : user.getPhysicalTables(monitor)) {
+						if (filter.accepts(user.getName(), table.getName())) {
+							tables.add(table);
+						}
+					}
 				}
 			}
 		} catch (DBException e) {
@@ -43,7 +66,7 @@ public class TableDefinitionFetcher {
     	return tables;
     }
 
-	public static List<CubridTableColumn> getColumns(CubridTable table) {
+	public static List<CubridTableColumn> getColumns(DBRProgressMonitor monitor, CubridTable table) {
 		List<CubridTableColumn> columns = new ArrayList<>();
 		try {
 			columns = table.getAttributes(monitor);
@@ -53,18 +76,124 @@ public class TableDefinitionFetcher {
 		return columns;
 	}
 	
-	public static boolean isPrimaryKey(CubridTable table, CubridTableColumn column) {
-		for (GenericUniqueKey pk : getConstraints(table)) {
-			for (GenericTableConstraintColumn pkColumn : pk.getAttributeReferences(monitor)) {
-				if (column.equals(pkColumn.getAttribute()) && pk.getConstraintType().equals(DBSEntityConstraintType.PRIMARY_KEY)) {
-					return true;
+	// Columns of every table in one pass over db_attribute, keyed like getIndexes. Key information is
+	// left empty, it is filled per table from the constraints. Null when the query failed, so that the
+	// callers fall back to DBeaver's columns table by table.
+	public static Map<String, List<ColumnDef>> getColumnsByTable(DBRProgressMonitor monitor, MetaSession session,
+			TableFilter filter) {
+		CubridDataSource dataSource = session.getDataSource();
+		Map<String, List<ColumnDef>> columnsByTable = new HashMap<>();
+		boolean isSupportMultiSchema = dataSource.getSupportMultiSchema();
+		List<String> parameters = new ArrayList<>();
+		String query = "SELECT a.* FROM db_attribute a\n"
+				+ "JOIN db_class c ON a.class_name = c.class_name\n"
+				+ (isSupportMultiSchema ? "AND a.owner_name = c.owner_name\n" : "")
+				+ "WHERE a.attr_type = 'INSTANCE' AND c.is_system_class = 'NO'\n"
+				+ andFilter(filter, parameters)
+				+ "ORDER BY " + (isSupportMultiSchema ? "a.owner_name, " : "") + "a.class_name, a.def_order";
+		query = dataSource.wrapShardQuery(query);
+		try (JDBCResultSet dbResult = session.executeQuery(query, parameters)) {
+		    while (dbResult.next()) {
+		    	checkCanceled(monitor);
+		    	String tableName = JDBCUtils.safeGetString(dbResult, "class_name");
+		    	String tableKey = isSupportMultiSchema
+		    			? getTableKey(JDBCUtils.safeGetString(dbResult, "owner_name"), tableName)
+		    			: tableName;
+		    	columnsByTable.computeIfAbsent(tableKey, k -> new ArrayList<>()).add(toColumnDef(
+		    			JDBCUtils.safeGetString(dbResult, "attr_name"),
+		    			JDBCUtils.safeGetString(dbResult, "data_type"),
+		    			JDBCUtils.safeGetLong(dbResult, "prec"),
+		    			JDBCUtils.safeGetString(dbResult, "is_nullable"),
+		    			JDBCUtils.safeGetString(dbResult, "default_value"),
+		    			JDBCUtils.safeGetString(dbResult, "comment")));
+		    }
+		} catch (SQLException | DBCException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return columnsByTable;
+	}
+
+	// One db_attribute row as DBeaver's CubridTableColumn shows the same column
+	static ColumnDef toColumnDef(String attributeName, String dataType, long precision, String isNullable,
+			String defaultValue, String comment) {
+		return new ColumnDef(attributeName, getTypeName(dataType), precision, "NO".equals(isNullable), defaultValue,
+				comment, 0, List.of(), false, null);
+	}
+
+	// db_attribute keeps the internal type names, the sheets show the SQL ones
+	static String getTypeName(String dataType) {
+		if (dataType == null) {
+			return "";
+		}
+		return switch (dataType) {
+			case "STRING" -> "VARCHAR";
+			case "SHORT" -> "SMALLINT";
+			case "VARNCHAR" -> "NCHAR VARYING";
+			case "VARBIT" -> "BIT VARYING";
+			default -> dataType;
+		};
+	}
+
+	public static ConstraintIndex getConstraintIndex(DBRProgressMonitor monitor, CubridTable table) {
+		return getConstraintIndex(monitor, table, null);
+	}
+
+	// The foreign keys come from 'relationships' when it has the table's, otherwise from DBeaver table by table
+	static ConstraintIndex getConstraintIndex(DBRProgressMonitor monitor, CubridTable table, Relationships relationships) {
+		ConstraintIndex constraintIndex = new ConstraintIndex();
+		for (GenericUniqueKey constraint : getConstraints(monitor, table)) {
+			List<GenericTableConstraintColumn> keyColumns = constraint.getAttributeReferences(monitor);
+			if (keyColumns == null) {
+				continue;
+			}
+			if (DBSEntityConstraintType.PRIMARY_KEY.equals(constraint.getConstraintType())) {
+				for (int i = 0; i < keyColumns.size(); i++) {
+					constraintIndex.addPrimaryKeyColumn(keyColumns.get(i).getAttribute().getName(), i + 1);
+				}
+			} else if (DBSEntityConstraintType.UNIQUE_KEY.equals(constraint.getConstraintType())) {
+				int uniqueKey = constraintIndex.nextUniqueKey();
+				for (GenericTableConstraintColumn keyColumn : keyColumns) {
+					constraintIndex.addUniqueKeyColumn(keyColumn.getAttribute().getName(), uniqueKey);
 				}
 			}
 		}
-		return false;
+		List<Relationships.ForeignKey> foreignKeys = relationships == null ? null
+				: relationships.getForeignKeys(getTableKey(table));
+		if (foreignKeys != null) {
+			for (Relationships.ForeignKey foreignKey : foreignKeys) {
+				int foreignKeyNo = constraintIndex.nextForeignKey();
+				for (int i = 0; i < foreignKey.getColumns().size(); i++) {
+					constraintIndex.addForeignKeyColumn(foreignKey.getColumns().get(i), foreignKeyNo,
+							foreignKey.getReferencedTableName(), foreignKey.getReferencedColumns().get(i));
+				}
+			}
+			return constraintIndex;
+		}
+		try {
+			for (GenericTableForeignKey foreignKey : table.getAssociations(monitor)) {
+				List<GenericTableForeignKeyColumnTable> keyColumns = foreignKey.getAttributeReferences(monitor);
+				if (keyColumns == null) {
+					continue;
+				}
+				int foreignKeyNo = constraintIndex.nextForeignKey();
+				GenericTableBase referencedTable = foreignKey.getAssociatedEntity();
+				String referencedTableName = referencedTable == null ? null
+						: referencedTable.getSchema() == null ? referencedTable.getName()
+						: referencedTable.getSchema().getName() + "." + referencedTable.getName();
+				for (GenericTableForeignKeyColumnTable keyColumn : keyColumns) {
+					GenericTableColumn referencedColumn = keyColumn.getReferencedColumn();
+					constraintIndex.addForeignKeyColumn(keyColumn.getAttribute().getName(), foreignKeyNo,
+							referencedTableName, referencedColumn == null ? null : referencedColumn.getName());
+				}
+			}
+		} catch (DBException e) {
+			e.printStackTrace();
+		}
+		return constraintIndex;
 	}
 
-	public static List<GenericUniqueKey> getConstraints(CubridTable table) {
+	public static List<GenericUniqueKey> getConstraints(DBRProgressMonitor monitor, CubridTable table) {
 		List<GenericUniqueKey> constraints = new ArrayList<>();
 		try {
 			constraints = table.getConstraints(monitor);
@@ -74,50 +203,181 @@ public class TableDefinitionFetcher {
 		return constraints;
 	}
 
-	public static List<IndexKey> getIndexes(CubridTable table) {
-		List<IndexKey> indexColumns = new ArrayList<>();
-		boolean isSupportMultiSchema = table.getDataSource().getSupportMultiSchema();
+	public static Map<String, List<IndexKey>> getIndexes(DBRProgressMonitor monitor, MetaSession session,
+			TableFilter filter) {
+		CubridDataSource dataSource = session.getDataSource();
+		Map<String, Map<String, IndexKey>> indexesByTable = new HashMap<>();
+		boolean isSupportMultiSchema = dataSource.getSupportMultiSchema();
+		List<String> parameters = new ArrayList<>();
 		String query = "SELECT k.*, k.key_order + 1 AS ordering FROM db_index_key k\n"
 				+ "JOIN db_index i ON k.index_name = i.index_name\n"
 				+ (isSupportMultiSchema ? "AND k.owner_name = i.owner_name\n" : "")
 				+ "AND k.class_name = i.class_name\n"
 				+ "AND i.is_foreign_key = 'NO'\n"
-				+ "WHERE k.class_name = ?\n"
-				+ (isSupportMultiSchema ? "AND k.owner_name = ?\n" : "")
-				+ "ORDER BY k.index_name";
-		query = table.getDataSource().wrapShardQuery(query);
-		try (JDBCSession session = DBUtils.openMetaSession(monitor, table, "Load Indexes")) {
-	        try (JDBCPreparedStatement dbStat = session.prepareStatement(query)) {
-	        	dbStat.setString(1, table.getName());
-	            if (isSupportMultiSchema) {
-	                dbStat.setString(2, table.getSchema().getName());
-	            }
-			    try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-			        while (dbResult.next()) {
-			        	String indexName = JDBCUtils.safeGetString(dbResult, "index_name");
-			        	String columnName = JDBCUtils.safeGetString(dbResult, "key_attr_name");
-			        	int ordering = JDBCUtils.safeGetInteger(dbResult, "ordering");
-
-			        	IndexKey index = indexColumns.stream().filter(k -> k.getIndexName().equals(indexName)).findFirst().orElse(null);
-			        	if (index != null) {
-			        		index.addColumn(columnName, ordering);
-			        	} else {
-			        		index = new IndexKey(indexName);
-			        		index.addColumn(columnName, ordering);
-			        		indexColumns.add(index);
-			        	}
-			        }
-			    }
-	        } catch (SQLException e) {
-				e.printStackTrace();
+				+ whereFilter("k", isSupportMultiSchema, filter, parameters)
+				+ "ORDER BY " + (isSupportMultiSchema ? "k.owner_name, " : "") + "k.class_name, k.index_name, k.key_order";
+		query = dataSource.wrapShardQuery(query);
+		try (JDBCResultSet dbResult = session.executeQuery(query, parameters)) {
+		    while (dbResult.next()) {
+		    	checkCanceled(monitor);
+		    	String tableName = JDBCUtils.safeGetString(dbResult, "class_name");
+		    	String tableKey = isSupportMultiSchema
+		    			? getTableKey(JDBCUtils.safeGetString(dbResult, "owner_name"), tableName)
+		    			: tableName;
+		    	String indexName = JDBCUtils.safeGetString(dbResult, "index_name");
+		    	String columnName = JDBCUtils.safeGetString(dbResult, "key_attr_name");
+		    	int ordering = JDBCUtils.safeGetInteger(dbResult, "ordering");
+
+		    	indexesByTable.computeIfAbsent(tableKey, k -> new LinkedHashMap<>())
+		    			.computeIfAbsent(indexName, IndexKey::new)
+		    			.addColumn(columnName, ordering);
+		    }
+		} catch (SQLException | DBCException e) {
+			e.printStackTrace();
+		}
+
+		Map<String, List<IndexKey>> indexes = new HashMap<>(indexesByTable.size() * 2);
+		indexesByTable.forEach((tableKey, tableIndexes) -> indexes.put(tableKey, new ArrayList<>(tableIndexes.values())));
+		return indexes;
+	}
+
+	// One hash per table over its db_class, db_attribute, db_index_key and db_partition rows and its foreign keys,
+	// keyed like TableDef.getFullName(). Returns an empty map when the catalog could not be read, so that every
+	// table counts as changed; tables whose foreign keys could not be read are left out for the same reason.
+	public static Map<String, String> getFingerprints(DBRProgressMonitor monitor, MetaSession session,
+			TableFilter filter, ExportStats stats) {
+		CubridDataSource dataSource = session.getDataSource();
+		boolean isSupportMultiSchema = dataSource.getSupportMultiSchema();
+		String ownerJoin = isSupportMultiSchema ? "AND x.owner_name = c.owner_name\n" : "";
+		// The same condition goes into every query
+		List<String> parameters = new ArrayList<>();
+		String tableFilter = andFilter(filter, parameters);
+		String[] queries = {
+				"SELECT c.owner_name AS tbl_owner, c.class_name AS tbl_name, c.* FROM db_class c\n"
+						+ "WHERE c.is_system_class = 'NO'\n" + tableFilter
+						+ "ORDER BY c.owner_name, c.class_name",
+				"SELECT c.owner_name AS tbl_owner, c.class_name AS tbl_name, x.* FROM db_attribute x\n"
+						+ "JOIN db_class c ON x.class_name = c.class_name\n" + ownerJoin
+						+ "WHERE c.is_system_class = 'NO'\n" + tableFilter
+						+ "ORDER BY c.owner_name, c.class_name, x.def_order",
+				"SELECT c.owner_name AS tbl_owner, c.class_name AS tbl_name, i.is_unique, i.is_primary_key, i.is_foreign_key, x.*\n"
+						+ "FROM db_index_key x\n"
+						+ "JOIN db_index i ON x.index_name = i.index_name AND x.class_name = i.class_name\n"
+						+ (isSupportMultiSchema ? "AND x.owner_name = i.owner_name\n" : "")
+						+ "JOIN db_class c ON x.class_name = c.class_name\n" + ownerJoin
+						+ "WHERE c.is_system_class = 'NO'\n" + tableFilter
+						+ "ORDER BY c.owner_name, c.class_name, x.index_name, x.key_order",
+				"SELECT c.owner_name AS tbl_owner, c.class_name AS tbl_name, x.* FROM db_partition x\n"
+						+ "JOIN db_class c ON x.class_name = c.class_name\n" + ownerJoin
+						+ "WHERE c.is_system_class = 'NO'\n" + tableFilter
+						+ "ORDER BY c.owner_name, c.class_name, x.partition_name"
+		};
+
+		Map<String, MessageDigest> digests = new HashMap<>();
+		// Relationships keys tables without the owner when the server has no schemas
+		Map<String, String> tableKeys = new HashMap<>();
+		try {
+			for (String query : queries) {
+				stats.addQueries(1);
+				try (JDBCResultSet dbResult = session.executeQuery(dataSource.wrapShardQuery(query), parameters)) {
+					ResultSetMetaData metaData = dbResult.getMetaData();
+					int columnCount = metaData.getColumnCount();
+					while (dbResult.next()) {
+						checkCanceled(monitor);
+						String tableName = JDBCUtils.safeGetString(dbResult, "tbl_name");
+						String tableKey = getTableKey(JDBCUtils.safeGetString(dbResult, "tbl_owner"), tableName);
+						MessageDigest digest = digests.get(tableKey);
+						if (digest == null) {
+							digest = MessageDigest.getInstance("SHA-256");
+							digests.put(tableKey, digest);
+							tableKeys.put(isSupportMultiSchema ? tableKey : tableName, tableKey);
+						}
+						for (int i = 1; i <= columnCount; i++) {
+							updateDigest(digest, dbResult.getString(i));
+						}
+						digest.update((byte) '\n');
+					}
+				}
 			}
-		} catch (DBCException e) {
+		} catch (SQLException | DBCException | NoSuchAlgorithmException e) {
 			e.printStackTrace();
+			return Map.of();
+		}
+
+		// The catalog views mark foreign key indexes, but a new referenced table or ON DELETE rule only shows here
+		Relationships relationships = Relationships.load(monitor, session, filter);
+		if (relationships == null) {
+			stats.addQueries(1);
+			return Map.of();
 		}
-		return indexColumns;
+		stats.addQueries(relationships.getRequests());
+		for (String tableKey : relationships.getUnresolvedTables()) {
+			digests.remove(tableKeys.get(tableKey));
+		}
+		for (Relationships.ForeignKey foreignKey : relationships.getForeignKeys()) {
+			MessageDigest digest = digests.get(tableKeys.get(foreignKey.getTableKey()));
+			if (digest != null) {
+				updateDigest(digest, foreignKey.getName());
+				updateDigest(digest, foreignKey.getReferencedTableName());
+				updateDigest(digest, String.join(",", foreignKey.getColumns()));
+				updateDigest(digest, String.join(",", foreignKey.getReferencedColumns()));
+				updateDigest(digest, foreignKey.getOnDelete());
+				updateDigest(digest, foreignKey.getOnUpdate());
+				digest.update((byte) '\n');
+			}
+		}
+
+		Map<String, String> fingerprints = new HashMap<>(digests.size() * 2);
+		HexFormat hex = HexFormat.of();
+		digests.forEach((tableKey, digest) -> fingerprints.put(tableKey, hex.formatHex(digest.digest())));
+		return fingerprints;
 	}
 
-	public static String getDDL(CubridTable table) {
+	private static void updateDigest(MessageDigest digest, String value) {
+		digest.update((value == null ? "\0" : value + "\u001f").getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Thrown from long loops so that a cancelled export stops between rows, not only between tables
+	public static void checkCanceled(DBRProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new CancellationException("Export was cancelled");
+		}
+	}
+
+	public static String getTableKey(CubridTable table) {
+		return table.getDataSource().getSupportMultiSchema()
+				? getTableKey(table.getSchema().getName(), table.getName())
+				: table.getName();
+	}
+
+	static String getTableKey(String ownerName, String tableName) {
+		return ownerName + "." + tableName;
+	}
+
+	// "AND <condition>" on the db_class alias c of a query that already joins it
+	static String andFilter(TableFilter filter, List<String> parameters) {
+		String condition = filter.toSql("c", parameters);
+		return condition.isEmpty() ? "" : "AND " + condition + "\n";
+	}
+
+	// Joins db_class to a catalog view that has no filter columns of its own; ends the query's ON clause,
+	// so it must come last before ORDER BY
+	static String whereFilter(String alias, boolean isSupportMultiSchema, TableFilter filter, List<String> parameters) {
+		if (filter.isAll()) {
+			return "";
+		}
+		return "JOIN db_class c ON " + alias + ".class_name = c.class_name\n"
+				+ (isSupportMultiSchema ? "AND " + alias + ".owner_name = c.owner_name\n" : "")
+				+ "WHERE " + filter.toSql("c", parameters) + "\n";
+	}
+
+	static void bind(JDBCPreparedStatement dbStat, List<String> parameters) throws SQLException {
+		for (int i = 0; i < parameters.size(); i++) {
+			dbStat.setString(i + 1, parameters.get(i));
+		}
+	}
+
+	public static String getDDL(DBRProgressMonitor monitor, CubridTable table) {
 		Map<String, Object> options = new HashMap<>();
 		options.put("ddl.source", true);
 		options.put("ddl.separateForeignKeys", false);
@@ -126,14 +386,30 @@ public class TableDefinitionFetcher {
 			if (ddl == null || ddl.isBlank()) {
 				return "";
 			}
-		    return Arrays.stream(ddl.split("\\r?\\n")).skip(4)
-                    .collect(Collectors.joining(System.lineSeparator())).trim();
+			return skipLines(ddl, 4);
 		} catch (DBException e) {
 			e.printStackTrace();
 			return "";
 		}
 	}
 	
+	// Drops the generator's header lines and normalizes line endings to the platform separator
+	static String skipLines(String text, int count) {
+		int start = 0;
+		for (int i = 0; i < count && start >= 0; i++) {
+			int newline = text.indexOf('\n', start);
+			start = newline < 0 ? -1 : newline + 1;
+		}
+		if (start < 0) {
+			return "";
+		}
+		String rest = text.substring(start).replace("\r\n", "\n");
+		if (!"\n".equals(System.lineSeparator())) {
+			rest = rest.replace("\n", System.lineSeparator());
+		}
+		return rest.trim();
+	}
+
 	public static class IndexKey {
 		private String indexName;
 		private List<IndexColumn> columns = new ArrayList<>();
@@ -146,7 +422,7 @@ public class TableDefinitionFetcher {
 	        this.columns.add(new IndexColumn(columnName, ordering));
 	    }
 	    public String getIndexName() { return indexName; }
-	    public List<IndexColumn> getColumns() { return columns; }
+	    public List<IndexColumn> getColumns() { return Collections.unmodifiableList(columns); }
 
 	}
 	
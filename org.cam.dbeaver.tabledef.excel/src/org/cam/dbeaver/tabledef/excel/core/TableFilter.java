@@ -0,0 +1,143 @@
+package org.cam.dbeaver.tabledef.excel.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Which tables an export covers. A table is selected when it passes every criterion that is set:
+// its owner is listed, its name matches one of the include patterns, it matches none of the exclude
+// patterns, and it is in the pick list. Patterns use SQL LIKE syntax (% and _); names compare case-insensitively.
+public final class TableFilter {
+	public static final TableFilter ALL = new TableFilter(List.of(), List.of(), List.of(), List.of());
+
+	private final Set<String> owners;
+	private final List<String> includes;
+	private final List<String> excludes;
+	// owner.table
+	private final Set<String> tables;
+	private final List<Pattern> includePatterns;
+	private final List<Pattern> excludePatterns;
+
+	public TableFilter(Collection<String> owners, Collection<String> includes, Collection<String> excludes,
+			Collection<String> tables) {
+		this.owners = normalize(owners);
+		this.includes = List.copyOf(normalize(includes));
+		this.excludes = List.copyOf(normalize(excludes));
+		this.tables = normalize(tables);
+		for (String table : this.tables) {
+			if (table.indexOf('.') <= 0) {
+				throw new IllegalArgumentException("Picked tables must be given as owner.table: " + table);
+			}
+		}
+		this.includePatterns = this.includes.stream().map(TableFilter::toRegex).toList();
+		this.excludePatterns = this.excludes.stream().map(TableFilter::toRegex).toList();
+	}
+
+	// Comma separated lists as typed in the dialog or on the command line; null or blank means no criterion
+	public static TableFilter parse(String owners, String includes, String excludes, String tables) {
+		return new TableFilter(split(owners), split(includes), split(excludes), split(tables));
+	}
+
+	private static List<String> split(String values) {
+		return values == null ? List.of() : List.of(values.split(","));
+	}
+
+	private static Set<String> normalize(Collection<String> values) {
+		Set<String> normalized = new LinkedHashSet<>();
+		for (String value : values) {
+			if (value != null && !value.isBlank()) {
+				normalized.add(value.trim().toUpperCase(Locale.ROOT));
+			}
+		}
+		return normalized;
+	}
+
+	private static Pattern toRegex(String likePattern) {
+		StringBuilder regex = new StringBuilder();
+		for (char c : likePattern.toCharArray()) {
+			switch (c) {
+				case '%' -> regex.append(".*");
+				case '_' -> regex.append('.');
+				default -> regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+
+	public boolean isAll() {
+		return owners.isEmpty() && includes.isEmpty() && excludes.isEmpty() && tables.isEmpty();
+	}
+
+	public Set<String> getOwners() { return owners; }
+	public List<String> getIncludes() { return includes; }
+	public List<String> getExcludes() { return excludes; }
+	public Set<String> getTables() { return tables; }
+
+	// Lets the caller skip an owner before its tables are read
+	public boolean acceptsOwner(String owner) {
+		if (!owners.isEmpty() && !owners.contains(owner.toUpperCase(Locale.ROOT))) {
+			return false;
+		}
+		if (tables.isEmpty()) {
+			return true;
+		}
+		String prefix = owner.toUpperCase(Locale.ROOT) + ".";
+		return tables.stream().anyMatch(table -> table.startsWith(prefix));
+	}
+
+	public boolean accepts(String owner, String tableName) {
+		if (!acceptsOwner(owner)) {
+			return false;
+		}
+		String name = tableName.toUpperCase(Locale.ROOT);
+		if (!includePatterns.isEmpty() && includePatterns.stream().noneMatch(p -> p.matcher(name).matches())) {
+			return false;
+		}
+		if (excludePatterns.stream().anyMatch(p -> p.matcher(name).matches())) {
+			return false;
+		}
+		return tables.isEmpty() || tables.contains(owner.toUpperCase(Locale.ROOT) + "." + name);
+	}
+
+	// The same selection as a condition on a db_class alias; one '?' per value added to 'parameters'.
+	// Empty when every table is selected.
+	String toSql(String alias, List<String> parameters) {
+		List<String> conditions = new ArrayList<>();
+		if (!owners.isEmpty()) {
+			conditions.add("UPPER(" + alias + ".owner_name) IN (" + placeholders(owners.size()) + ")");
+			parameters.addAll(owners);
+		}
+		if (!includes.isEmpty()) {
+			List<String> matches = new ArrayList<>();
+			for (String include : includes) {
+				matches.add("UPPER(" + alias + ".class_name) LIKE ?");
+				parameters.add(include);
+			}
+			conditions.add("(" + String.join(" OR ", matches) + ")");
+		}
+		for (String exclude : excludes) {
+			conditions.add("UPPER(" + alias + ".class_name) NOT LIKE ?");
+			parameters.add(exclude);
+		}
+		if (!tables.isEmpty()) {
+			List<String> matches = new ArrayList<>();
+			for (String table : tables) {
+				int dot = table.indexOf('.');
+				matches.add("(UPPER(" + alias + ".owner_name) = ? AND UPPER(" + alias + ".class_name) = ?)");
+				parameters.add(table.substring(0, dot));
+				parameters.add(table.substring(dot + 1));
+			}
+			conditions.add("(" + String.join(" OR ", matches) + ")");
+		}
+		return String.join(" AND ", conditions);
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+}
@@ -1,10 +1,14 @@
 package org.cam.dbeaver.tabledef.excel.handler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.cam.dbeaver.tabledef.excel.ui.ExcelExportDialog;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.handlers.HandlerUtil;
 import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
@@ -20,13 +24,28 @@ public class ExcelExportHandler extends AbstractHandler {
 	public Object execute(ExecutionEvent event) throws ExecutionException {
 		final Shell activeShell = HandlerUtil.getActiveShell(event);
         final ISelection selection = HandlerUtil.getCurrentSelection(event);
-        final DBNNode node = NavigatorUtils.getSelectedNode(selection);
-        if (node instanceof DBNDataSource dataSourceNode) {
-            DataSourceDescriptor descriptor = (DataSourceDescriptor) dataSourceNode.getDataSourceContainer();
-            DBPDataSource dataSource = descriptor.getDataSource();
-            CubridDataSource cubrid = (CubridDataSource) dataSource;
+        final List<CubridDataSource> dataSources = new ArrayList<>();
+        if (selection instanceof IStructuredSelection structuredSelection) {
+            for (Object element : structuredSelection.toList()) {
+                if (element instanceof DBNDataSource dataSourceNode
+                        && dataSourceNode.getDataSourceContainer().getDataSource() instanceof CubridDataSource cubrid) {
+                    dataSources.add(cubrid);
+                }
+            }
+        }
+        if (dataSources.isEmpty()) {
+            final DBNNode node = NavigatorUtils.getSelectedNode(selection);
+            if (node instanceof DBNDataSource dataSourceNode) {
+                DataSourceDescriptor descriptor = (DataSourceDescriptor) dataSourceNode.getDataSourceContainer();
+                DBPDataSource dataSource = descriptor.getDataSource();
+                if (dataSource instanceof CubridDataSource cubrid) {
+                    dataSources.add(cubrid);
+                }
+            }
+        }
+        if (!dataSources.isEmpty()) {
             try {
-                ExcelExportDialog dialog = new ExcelExportDialog(activeShell, cubrid);
+                ExcelExportDialog dialog = new ExcelExportDialog(activeShell, dataSources);
                 dialog.open();
             } catch (Exception e) {
                 e.printStackTrace();
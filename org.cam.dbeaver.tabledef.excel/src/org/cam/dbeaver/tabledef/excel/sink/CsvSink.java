@@ -0,0 +1,72 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// One RFC 4180 row per column. Indexes and DDL have no place in a column table and are left out;
+// the key columns carry the PK/UK/FK information the workbook shows.
+public class CsvSink extends TextSink {
+    private static final String[] HEADER = { "owner", "table", "table_description", "position", "column", "type",
+            "size", "nullable", "default", "pk", "uk", "fk", "fk_table", "fk_column", "description" };
+
+    private TableDef table;
+
+    public CsvSink(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void writeTableList(List<TableDef> tables) throws IOException {
+        writeRow((Object[]) HEADER);
+    }
+
+    @Override
+    public void beginTable(TableDef table) {
+        this.table = table;
+    }
+
+    @Override
+    public void column(int position, ColumnDef column) throws IOException {
+        writeRow(table.getSchemaName(), table.getName(), table.getDescription(), position, column.getName(),
+                column.getTypeName(), column.getMaxLength() > 0 ? column.getMaxLength() : "",
+                column.isRequired() ? "" : "Y", column.getDefaultValue(), column.getPrimaryKeyLabel(),
+                column.getUniqueKeyLabel(), column.getForeignKeyLabel(),
+                column.getForeignKeyRef() != null ? column.getForeignKeyRef().getReferencedTable() : "",
+                column.getForeignKeyRef() != null ? column.getForeignKeyRef().getReferencedColumn() : "",
+                column.getDescription());
+    }
+
+    @Override
+    public void index(IndexKey index) {
+    }
+
+    @Override
+    public void ddl(String ddl) {
+    }
+
+    @Override
+    public void endTable() {
+        table = null;
+    }
+
+    private void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(quote(values[i] == null ? "" : values[i].toString()));
+        }
+        out.write("\r\n");
+    }
+
+    static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,53 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// Receives an export as a stream of events: the table list once, then for every table beginTable,
+// its columns, its indexes, its DDL and endTable, and finally finish. Events arrive on a single thread,
+// in table order, so a sink only has to keep the table it is writing.
+public interface ExportSink {
+
+    void tableList(List<TableDef> tables) throws IOException;
+
+    void beginTable(TableDef table) throws IOException;
+
+    // Position starts at 1
+    void column(int position, ColumnDef column) throws IOException;
+
+    void index(IndexKey index) throws IOException;
+
+    void ddl(String ddl) throws IOException;
+
+    void endTable() throws IOException;
+
+    // Completes the output after the last table
+    void finish() throws IOException;
+
+    // Gives up on unfinished output, removing what was already written
+    void abort();
+
+    // The file written, for the export stats; null when the sink does not write a single file
+    default Path getFile() {
+        return null;
+    }
+
+    // Sends one table as its sequence of events
+    static void write(ExportSink sink, TableDef table) throws IOException {
+        sink.beginTable(table);
+        int position = 1;
+        for (ColumnDef column : table.getColumns()) {
+            sink.column(position++, column);
+        }
+        for (IndexKey index : table.getIndexes()) {
+            sink.index(index);
+        }
+        sink.ddl(table.getDDL());
+        sink.endTable();
+    }
+}
@@ -0,0 +1,113 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexColumn;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// One JSON object per table and line:
+// {"owner":..,"table":..,"description":..,"columns":[..],"indexes":[..],"ddl":..}
+// The line is built while the events of its table arrive and written at endTable.
+public class JsonLinesSink extends TextSink {
+    private final StringBuilder columns = new StringBuilder();
+    private final StringBuilder indexes = new StringBuilder();
+    private TableDef table;
+    private String ddl;
+
+    public JsonLinesSink(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void writeTableList(List<TableDef> tables) {
+    }
+
+    @Override
+    public void beginTable(TableDef table) {
+        this.table = table;
+        columns.setLength(0);
+        indexes.setLength(0);
+        ddl = null;
+    }
+
+    @Override
+    public void column(int position, ColumnDef column) {
+        separate(columns);
+        columns.append("{\"position\":").append(position)
+                .append(",\"name\":").append(quote(column.getName()))
+                .append(",\"type\":").append(quote(column.getTypeName()))
+                .append(",\"size\":").append(column.getMaxLength())
+                .append(",\"required\":").append(column.isRequired())
+                .append(",\"default\":").append(quote(column.getDefaultValue()))
+                .append(",\"pk\":").append(column.getPrimaryKeyOrdinal())
+                .append(",\"uk\":").append(column.getUniqueKeyOrdinals())
+                .append(",\"fk\":").append(column.isForeignKey());
+        if (column.getForeignKeyRef() != null) {
+            columns.append(",\"references\":{\"table\":").append(quote(column.getForeignKeyRef().getReferencedTable()))
+                    .append(",\"column\":").append(quote(column.getForeignKeyRef().getReferencedColumn())).append('}');
+        }
+        columns.append(",\"description\":").append(quote(column.getDescription())).append('}');
+    }
+
+    @Override
+    public void index(IndexKey index) {
+        separate(indexes);
+        indexes.append("{\"name\":").append(quote(index.getIndexName())).append(",\"columns\":[");
+        List<IndexColumn> indexColumns = index.getColumns();
+        for (int i = 0; i < indexColumns.size(); i++) {
+            indexes.append(i > 0 ? "," : "").append(quote(indexColumns.get(i).getColumnName()));
+        }
+        indexes.append("]}");
+    }
+
+    @Override
+    public void ddl(String ddl) {
+        this.ddl = ddl;
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        out.write("{\"owner\":" + quote(table.getSchemaName())
+                + ",\"table\":" + quote(table.getName())
+                + ",\"description\":" + quote(table.getDescription())
+                + ",\"columns\":[" + columns + "]"
+                + ",\"indexes\":[" + indexes + "]"
+                + ",\"ddl\":" + quote(ddl) + "}\n");
+        table = null;
+    }
+
+    private static void separate(StringBuilder list) {
+        if (list.length() > 0) {
+            list.append(',');
+        }
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
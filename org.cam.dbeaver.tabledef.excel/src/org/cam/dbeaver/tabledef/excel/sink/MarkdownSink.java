@@ -0,0 +1,89 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexColumn;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// A single document: the table list, then one section per table with its columns, indexes and DDL
+public class MarkdownSink extends TextSink {
+    private boolean firstIndex;
+
+    public MarkdownSink(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void writeTableList(List<TableDef> tables) throws IOException {
+        out.write("# Table Definitions\n\n");
+        out.write("| Table Name | Table Description |\n");
+        out.write("| --- | --- |\n");
+        for (TableDef table : tables) {
+            out.write("| [" + cell(table.getFullName()) + "](#" + anchor(table.getFullName()) + ") | "
+                    + cell(table.getDescription()) + " |\n");
+        }
+    }
+
+    @Override
+    public void beginTable(TableDef table) throws IOException {
+        out.write("\n## " + table.getFullName() + "\n\n");
+        if (table.getDescription() != null && !table.getDescription().isBlank()) {
+            out.write(table.getDescription().strip() + "\n\n");
+        }
+        out.write("| No | Column Name | Data Type | Size | NULL | PK | UK | FK | Default | Description |\n");
+        out.write("| ---: | --- | --- | ---: | :---: | :---: | :---: | :---: | --- | --- |\n");
+        firstIndex = true;
+    }
+
+    @Override
+    public void column(int position, ColumnDef column) throws IOException {
+        out.write("| " + position
+                + " | " + cell(column.getName())
+                + " | " + cell(column.getTypeName())
+                + " | " + (column.getMaxLength() > 0 ? column.getMaxLength() : "")
+                + " | " + (column.isRequired() ? "" : "Y")
+                + " | " + column.getPrimaryKeyLabel()
+                + " | " + column.getUniqueKeyLabel()
+                + " | " + column.getForeignKeyLabel()
+                + " | " + cell(column.getDefaultValue())
+                + " | " + cell(column.getDescription()) + " |\n");
+    }
+
+    @Override
+    public void index(IndexKey index) throws IOException {
+        if (firstIndex) {
+            out.write("\n**Indexes**\n\n");
+            firstIndex = false;
+        }
+        StringBuilder columns = new StringBuilder();
+        for (IndexColumn column : index.getColumns()) {
+            columns.append(columns.length() > 0 ? ", " : "").append(column.getColumnName());
+        }
+        out.write("- " + cell(index.getIndexName()) + " (" + cell(columns.toString()) + ")\n");
+    }
+
+    @Override
+    public void ddl(String ddl) throws IOException {
+        if (ddl != null && !ddl.isBlank()) {
+            out.write("\n```sql\n" + ddl.strip() + "\n```\n");
+        }
+    }
+
+    @Override
+    public void endTable() {
+    }
+
+    // Pipes and line breaks would end the table cell
+    private static String cell(String value) {
+        return nullToEmpty(value).replace("|", "\\|").replaceAll("\\R", "<br>");
+    }
+
+    // GitHub's heading anchors: lower case, punctuation dropped, spaces as dashes
+    private static String anchor(String heading) {
+        return heading.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N} _-]", "").replace(' ', '-');
+    }
+}
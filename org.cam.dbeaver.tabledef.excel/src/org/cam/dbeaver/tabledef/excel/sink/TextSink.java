@@ -0,0 +1,77 @@
+package org.cam.dbeaver.tabledef.excel.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+
+// Base of the text formats: a buffered UTF-8 writer on a temp file next to the output file, written as the
+// events arrive and moved over the output file by finish, so an export that fails leaves an earlier file alone.
+public abstract class TextSink implements ExportSink {
+    private final Path file;
+    private Path tempFile;
+    protected Writer out;
+
+    protected TextSink(String filePath) {
+        this.file = Path.of(filePath);
+    }
+
+    @Override
+    public final void tableList(List<TableDef> tables) throws IOException {
+        Path target = file.toAbsolutePath();
+        // Not Files.createTempFile, whose owner-only permissions would carry over to the output file
+        tempFile = target.resolveSibling(target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        writeTableList(tables);
+    }
+
+    // Writes what the format puts before the first table
+    protected abstract void writeTableList(List<TableDef> tables) throws IOException;
+
+    @Override
+    public void finish() throws IOException {
+        if (out == null) {
+            return;
+        }
+        out.close();
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        tempFile = null;
+    }
+
+    @Override
+    public void abort() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile);
+                tempFile = null;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    protected static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,52 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import java.util.function.Function;
+
+public enum Binding {
+	DATE("date", null, c -> c.date),
+	TABLE_FULL_NAME("table.fullName", RowBlueprint.Source.TABLES, c -> c.table.getFullName()),
+	TABLE_SCHEMA("table.schema", RowBlueprint.Source.TABLES, c -> c.table.getSchemaName()),
+	TABLE_NAME("table.name", RowBlueprint.Source.TABLES, c -> c.table.getName()),
+	TABLE_DESCRIPTION("table.description", RowBlueprint.Source.TABLES, c -> c.table.getDescription()),
+	TABLE_DDL("table.ddl", RowBlueprint.Source.TABLES, c -> c.table.getDDL()),
+	COLUMN_NAME("column.name", RowBlueprint.Source.COLUMNS, c -> c.column.getName()),
+	COLUMN_TYPE("column.type", RowBlueprint.Source.COLUMNS, c -> c.column.getTypeName()),
+	COLUMN_SIZE("column.size", RowBlueprint.Source.COLUMNS, c -> c.column.getMaxLength()),
+	COLUMN_NULLABLE("column.nullable", RowBlueprint.Source.COLUMNS, c -> c.column.isRequired() ? "" : "Y"),
+	COLUMN_PK("column.pk", RowBlueprint.Source.COLUMNS, c -> c.column.getPrimaryKeyLabel()),
+	COLUMN_UK("column.uk", RowBlueprint.Source.COLUMNS, c -> c.column.getUniqueKeyLabel()),
+	COLUMN_FK("column.fk", RowBlueprint.Source.COLUMNS, c -> c.column.getForeignKeyLabel()),
+	COLUMN_DEFAULT("column.default", RowBlueprint.Source.COLUMNS, c -> c.column.getDefaultValue()),
+	COLUMN_DESCRIPTION("column.description", RowBlueprint.Source.COLUMNS, c -> c.column.getDescription()),
+	INDEX_NO("index.no", RowBlueprint.Source.INDEXES, c -> c.indexNo),
+	INDEX_NAME("index.name", RowBlueprint.Source.INDEXES, c -> c.index.getIndexName()),
+	INDEX_COLUMN("index.column", RowBlueprint.Source.INDEXES, c -> c.indexColumn.getColumnName()),
+	INDEX_ORDERING("index.ordering", RowBlueprint.Source.INDEXES, c -> (long) c.indexColumn.getOrdering());
+
+	private final String key;
+	// Row source the value comes from, null when it is available everywhere
+	private final RowBlueprint.Source source;
+	private final Function<RowContext, Object> resolver;
+
+	Binding(String key, RowBlueprint.Source source, Function<RowContext, Object> resolver) {
+		this.key = key;
+		this.source = source;
+		this.resolver = resolver;
+	}
+
+	public String getKey() { return key; }
+	public RowBlueprint.Source getSource() { return source; }
+
+	Object resolve(RowContext context) {
+		return resolver.apply(context);
+	}
+
+	public static Binding forKey(String key) {
+		for (Binding binding : values()) {
+			if (binding.key.equals(key)) {
+				return binding;
+			}
+		}
+		throw new IllegalArgumentException("Unknown binding '" + key + "'");
+	}
+}
@@ -0,0 +1,33 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import org.cam.dbeaver.tabledef.excel.writer.CellFormat;
+
+public final class CellBlueprint {
+	private final int firstCol;
+	private final int lastCol;
+	private final CellFormat format;
+	private final String text;
+	private final Binding binding;
+	// Written once per index and merged down over all of its rows
+	private final boolean group;
+
+	public CellBlueprint(int firstCol, int lastCol, CellFormat format, String text, Binding binding, boolean group) {
+		this.firstCol = firstCol;
+		this.lastCol = lastCol;
+		this.format = format;
+		this.text = text;
+		this.binding = binding;
+		this.group = group;
+	}
+
+	public int getFirstCol() { return firstCol; }
+	public int getLastCol() { return lastCol; }
+	public CellFormat getFormat() { return format; }
+	public String getText() { return text; }
+	public Binding getBinding() { return binding; }
+	public boolean isGroup() { return group; }
+
+	Object resolve(RowContext context) {
+		return binding == null ? text : binding.resolve(context);
+	}
+}
@@ -0,0 +1,188 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.cam.dbeaver.tabledef.excel.writer.CellFormat;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+// A house style compiled from its XML description: one sheet template for the table list
+// and one that is stamped out for every table
+public final class ExcelTemplate {
+	private final String name;
+	// SHA-256 of the XML description; a template edited under the same name renders differently
+	private final String digest;
+	private final SheetTemplate tableList;
+	private final SheetTemplate tableDetail;
+
+	private ExcelTemplate(String name, String digest, SheetTemplate tableList, SheetTemplate tableDetail) {
+		this.name = name;
+		this.digest = digest;
+		this.tableList = tableList;
+		this.tableDetail = tableDetail;
+	}
+
+	public String getName() { return name; }
+	public String getDigest() { return digest; }
+	public SheetTemplate getTableList() { return tableList; }
+	public SheetTemplate getTableDetail() { return tableDetail; }
+
+	// Templates bundled next to this class, e.g. "simple.xml"
+	public static ExcelTemplate loadResource(String resourceName) {
+		try (InputStream in = ExcelTemplate.class.getResourceAsStream(resourceName)) {
+			if (in == null) {
+				throw new IOException("Template resource not found: " + resourceName);
+			}
+			return compile(in.readAllBytes());
+		} catch (IOException | RuntimeException e) {
+			throw new RuntimeException("Failed to load template " + resourceName + ": " + e.getMessage(), e);
+		}
+	}
+
+	public static ExcelTemplate load(File file) {
+		try {
+			return compile(Files.readAllBytes(file.toPath()));
+		} catch (IOException | RuntimeException e) {
+			throw new RuntimeException("Failed to load template " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static ExcelTemplate compile(byte[] content) throws IOException {
+		String digest;
+		try {
+			digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		Document document;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+			factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+			document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(content));
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException(e.getMessage(), e);
+		}
+
+		Element root = document.getDocumentElement();
+		if (!"template".equals(root.getTagName())) {
+			throw new IllegalArgumentException("Root element must be <template>");
+		}
+		SheetTemplate tableList = null;
+		SheetTemplate tableDetail = null;
+		for (Element element : children(root)) {
+			switch (element.getTagName()) {
+				case "tables" -> tableList = compileSheet(element, element.getAttribute("name"), false);
+				case "table" -> tableDetail = compileSheet(element, null, true);
+				default -> throw new IllegalArgumentException("Unexpected element <" + element.getTagName() + ">");
+			}
+		}
+		if (tableList == null || tableDetail == null) {
+			throw new IllegalArgumentException("Both <tables> and <table> sheets are required");
+		}
+		return new ExcelTemplate(root.getAttribute("name"), digest, tableList, tableDetail);
+	}
+
+	private static SheetTemplate compileSheet(Element element, String name, boolean perTable) {
+		if (!perTable && name.isEmpty()) {
+			throw new IllegalArgumentException("<tables> needs a sheet name");
+		}
+		List<RowBlueprint> rows = new ArrayList<>();
+		for (Element rowElement : children(element)) {
+			RowBlueprint.Source source = switch (rowElement.getTagName()) {
+				case "row" -> RowBlueprint.Source.NONE;
+				case "rows" -> parseSource(rowElement.getAttribute("for"), perTable);
+				default -> throw new IllegalArgumentException("Unexpected element <" + rowElement.getTagName() + ">");
+			};
+			rows.add(compileRow(rowElement, source, perTable));
+		}
+		return new SheetTemplate(name, parseInts(element.getAttribute("widths")), rows);
+	}
+
+	private static RowBlueprint compileRow(Element element, RowBlueprint.Source source, boolean perTable) {
+		List<CellBlueprint> cells = new ArrayList<>();
+		for (Element cell : children(element)) {
+			if (!"cell".equals(cell.getTagName())) {
+				throw new IllegalArgumentException("Unexpected element <" + cell.getTagName() + ">");
+			}
+			int firstCol = Integer.parseInt(cell.getAttribute("col"));
+			int lastCol = cell.hasAttribute("to") ? Integer.parseInt(cell.getAttribute("to")) : firstCol;
+			if (firstCol < 0 || lastCol < firstCol) {
+				throw new IllegalArgumentException("Invalid cell columns " + firstCol + ".." + lastCol);
+			}
+			CellFormat format = cell.hasAttribute("style")
+					? CellFormat.valueOf(cell.getAttribute("style").toUpperCase(Locale.ROOT))
+					: CellFormat.CENTER;
+
+			Binding binding = null;
+			if (cell.hasAttribute("value")) {
+				binding = Binding.forKey(cell.getAttribute("value"));
+				RowBlueprint.Source required = binding.getSource();
+				boolean available = required == null || required == source
+						|| (required == RowBlueprint.Source.TABLES && perTable);
+				if (!available) {
+					throw new IllegalArgumentException("'" + binding.getKey() + "' is not available in this row");
+				}
+			}
+			boolean group = Boolean.parseBoolean(cell.getAttribute("group"));
+			if (group && source != RowBlueprint.Source.INDEXES) {
+				throw new IllegalArgumentException("Grouped cells are only supported in index rows");
+			}
+			cells.add(new CellBlueprint(firstCol, lastCol, format, cell.getTextContent(), binding, group));
+		}
+		float height = element.hasAttribute("height") ? Float.parseFloat(element.getAttribute("height")) : 0;
+		return new RowBlueprint(source, cells, height, Boolean.parseBoolean(element.getAttribute("autoHeight")));
+	}
+
+	private static RowBlueprint.Source parseSource(String value, boolean perTable) {
+		RowBlueprint.Source source = switch (value) {
+			case "tables" -> RowBlueprint.Source.TABLES;
+			case "columns" -> RowBlueprint.Source.COLUMNS;
+			case "indexes" -> RowBlueprint.Source.INDEXES;
+			default -> throw new IllegalArgumentException("Unknown row source '" + value + "'");
+		};
+		if (perTable == (source == RowBlueprint.Source.TABLES)) {
+			throw new IllegalArgumentException("Rows for '" + value + "' are not available in this sheet");
+		}
+		return source;
+	}
+
+	private static int[] parseInts(String value) {
+		if (value.isBlank()) {
+			return new int[0];
+		}
+		String[] parts = value.split(",");
+		int[] result = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Integer.parseInt(parts[i].trim());
+		}
+		return result;
+	}
+
+	private static List<Element> children(Element parent) {
+		List<Element> result = new ArrayList<>();
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element element) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,35 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import java.util.List;
+
+public final class RowBlueprint {
+	public enum Source {
+		// Written once
+		NONE,
+		// One row per table of the export
+		TABLES,
+		// One row per column of the table
+		COLUMNS,
+		// One row per column of every index of the table
+		INDEXES
+	}
+
+	private final Source source;
+	private final List<CellBlueprint> cells;
+	// Fixed height in points, 0 keeps the default
+	private final float height;
+	// Height follows the number of lines of the tallest value
+	private final boolean autoHeight;
+
+	public RowBlueprint(Source source, List<CellBlueprint> cells, float height, boolean autoHeight) {
+		this.source = source;
+		this.cells = List.copyOf(cells);
+		this.height = height;
+		this.autoHeight = autoHeight;
+	}
+
+	public Source getSource() { return source; }
+	public List<CellBlueprint> getCells() { return cells; }
+	public float getHeight() { return height; }
+	public boolean isAutoHeight() { return autoHeight; }
+}
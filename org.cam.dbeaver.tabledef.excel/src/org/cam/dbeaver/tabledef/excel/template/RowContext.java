@@ -0,0 +1,20 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexColumn;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+
+// Values the bindings of the row being stamped can read; reused for every row of a sheet
+class RowContext {
+	final String date;
+	TableDef table;
+	ColumnDef column;
+	IndexKey index;
+	IndexColumn indexColumn;
+	long indexNo;
+
+	RowContext(String date) {
+		this.date = date;
+	}
+}
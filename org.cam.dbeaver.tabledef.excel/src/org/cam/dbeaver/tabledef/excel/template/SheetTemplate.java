@@ -0,0 +1,104 @@
+package org.cam.dbeaver.tabledef.excel.template;
+
+import java.util.List;
+
+import org.cam.dbeaver.tabledef.excel.core.ColumnDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDef;
+import org.cam.dbeaver.tabledef.excel.core.TableDefinitionFetcher.IndexKey;
+import org.cam.dbeaver.tabledef.excel.writer.SheetWriter;
+
+public final class SheetTemplate {
+	private final String name;
+	private final int[] widths;
+	private final List<RowBlueprint> rows;
+
+	public SheetTemplate(String name, int[] widths, List<RowBlueprint> rows) {
+		this.name = name;
+		this.widths = widths.clone();
+		this.rows = List.copyOf(rows);
+	}
+
+	public String getName() { return name; }
+	public List<RowBlueprint> getRows() { return rows; }
+
+	public void renderTableList(SheetWriter sheet, List<TableDef> tables, String date) {
+		render(sheet, new RowContext(date), tables);
+	}
+
+	public void renderTable(SheetWriter sheet, TableDef table, String date) {
+		RowContext context = new RowContext(date);
+		context.table = table;
+		render(sheet, context, List.of(table));
+	}
+
+	private void render(SheetWriter sheet, RowContext context, List<TableDef> tables) {
+		if (widths.length > 0) {
+			sheet.setColumnWidths(widths);
+		}
+
+		int rowIndex = 0;
+		for (RowBlueprint row : rows) {
+			switch (row.getSource()) {
+				case NONE -> stamp(sheet, rowIndex++, row, context, true, 1);
+				case TABLES -> {
+					for (TableDef table : tables) {
+						context.table = table;
+						stamp(sheet, rowIndex++, row, context, true, 1);
+					}
+				}
+				case COLUMNS -> {
+					for (ColumnDef column : context.table.getColumns()) {
+						context.column = column;
+						stamp(sheet, rowIndex++, row, context, true, 1);
+					}
+				}
+				case INDEXES -> {
+					context.indexNo = 0;
+					for (IndexKey index : context.table.getIndexes()) {
+						int numColumns = index.getColumns().size();
+						context.index = index;
+						context.indexNo++;
+						for (int i = 0; i < numColumns; i++) {
+							context.indexColumn = index.getColumns().get(i);
+							stamp(sheet, rowIndex++, row, context, i == 0, numColumns);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static void stamp(SheetWriter sheet, int rowIndex, RowBlueprint row, RowContext context,
+			boolean groupStart, int groupRows) {
+		int numLines = 0;
+		for (CellBlueprint cell : row.getCells()) {
+			int firstCol = cell.getFirstCol();
+			if (cell.isGroup() && !groupStart) {
+				sheet.addCell(rowIndex, firstCol, "", cell.getFormat());
+				continue;
+			}
+
+			Object value = cell.resolve(context);
+			if (value instanceof Number number) {
+				sheet.addCell(rowIndex, firstCol, number.longValue(), cell.getFormat());
+			} else {
+				String text = value == null ? "" : value.toString();
+				sheet.addCell(rowIndex, firstCol, text, cell.getFormat());
+				if (row.isAutoHeight()) {
+					numLines = Math.max(numLines, text.split("\n").length);
+				}
+			}
+
+			int lastRow = cell.isGroup() ? rowIndex + groupRows - 1 : rowIndex;
+			if (lastRow > rowIndex || cell.getLastCol() > firstCol) {
+				sheet.mergeCells(rowIndex, lastRow, firstCol, cell.getLastCol());
+			}
+		}
+
+		if (row.isAutoHeight()) {
+			sheet.setRowHeightInPoints(rowIndex, (numLines + 1) * sheet.getDefaultRowHeightInPoints());
+		} else if (row.getHeight() > 0) {
+			sheet.setRowHeightInPoints(rowIndex, row.getHeight());
+		}
+	}
+}
@@ -1,15 +1,24 @@
 package org.cam.dbeaver.tabledef.excel.ui;
 
 import java.io.File;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.cam.dbeaver.tabledef.excel.ExcelExport;
+import org.cam.dbeaver.tabledef.excel.ExcelExportBatch;
 import org.cam.dbeaver.tabledef.excel.ExcelGenericStyle;
+import org.cam.dbeaver.tabledef.excel.ExcelMainStyle;
 import org.cam.dbeaver.tabledef.excel.ExcelSimpleStyle;
-import org.eclipse.core.runtime.IProgressMonitor;
+import org.cam.dbeaver.tabledef.excel.ExcelTemplateStyle;
+import org.cam.dbeaver.tabledef.excel.SinkExport;
+import org.cam.dbeaver.tabledef.excel.core.ExportOptions;
+import org.cam.dbeaver.tabledef.excel.core.ExportStats;
+import org.cam.dbeaver.tabledef.excel.core.TableFilter;
+import org.cam.dbeaver.tabledef.excel.template.ExcelTemplate;
 import org.eclipse.jface.dialogs.MessageDialog;
-import org.eclipse.jface.dialogs.ProgressMonitorDialog;
-import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
@@ -19,8 +28,10 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
 import org.jkiss.dbeaver.model.DBIcon;
@@ -31,19 +42,52 @@ public class ExcelExportDialog extends BaseDialog {
 	private static DBIcon cubridIcon = new DBIcon("platform:/plugin/org.jkiss.dbeaver.ext.cubrid/icons/cubrid_icon.png");
     private Text txtPath;
     private Text txtName;
+    private Label lblExtension;
+    private Button btnCsv;
+    private Button btnJsonLines;
+    private Button btnMarkdown;
     private Font boldFont;
     private Button btnSimple;
     private Button btnGeneric;
-    private CubridDataSource dataSource;
+    private Button btnCustom;
+    private Text txtTemplate;
+    private Button btnTemplateBrowse;
+    private Button btnInMemory;
+    private Button btnStreaming;
+    private Button btnDirect;
+    private Spinner spnRowWindow;
+    private Spinner spnParallelism;
+    private Spinner spnConcurrency;
+    private Button chkIncremental;
+    private Button chkCache;
+    private Spinner spnCacheTtl;
+    private Button chkStatsSheet;
+    private Button chkRelationships;
+    private Button chkStatsFile;
+    private Button btnDdlSynthesized;
+    private Button btnDdlCompare;
+    private Button btnSplitOwner;
+    private Button btnSplitTables;
+    private Spinner spnTablesPerWorkbook;
+    private Text txtOwners;
+    private Text txtInclude;
+    private Text txtExclude;
+    private Text txtTables;
+    private final List<CubridDataSource> dataSources;
 	private DocumentStyle selectedStyle = DocumentStyle.SIMPLE;
 
 	private enum DocumentStyle {
-	    SIMPLE, GENERIC
+	    SIMPLE, GENERIC, CUSTOM
 	}
 
 	public ExcelExportDialog(Shell parentShell, CubridDataSource dataSource) {
+        this(parentShell, List.of(dataSource));
+    }
+
+	// With several data sources each one is exported to its own workbook, named after its database
+	public ExcelExportDialog(Shell parentShell, List<CubridDataSource> dataSources) {
         super(parentShell, "Exporting table definitions to Excel", cubridIcon);
-        this.dataSource = dataSource;
+        this.dataSources = List.copyOf(dataSources);
     }
  
 	@Override
@@ -57,37 +101,138 @@ public class ExcelExportDialog extends BaseDialog {
     protected void okPressed() {
         String path = txtPath.getText();
         String fileName = txtName.getText();
-        String fullPath = path + File.separator + fileName + ".xlsx";
+        ExportOptions.Format format = getFormat();
+        String fullPath = path + File.separator + fileName + "." + format.getExtension();
 
-        if (path.isEmpty() || fileName.isEmpty()) {
+        if (path.isEmpty() || (!isBatch() && fileName.isEmpty())) {
             MessageDialog.openError(getShell(), "Error", "Please input Excel path and name.");
             return;
         }
+        if (selectedStyle == DocumentStyle.CUSTOM && txtTemplate.getText().isEmpty()) {
+            MessageDialog.openError(getShell(), "Error", "Please select a template file.");
+            return;
+        }
 
-        ProgressMonitorDialog progressDialog = new ProgressMonitorDialog(getShell());
+        ExportOptions options = new ExportOptions();
         try {
-            progressDialog.run(true, false, (IRunnableWithProgress) monitor -> {
-                monitor.beginTask("Generating Excel file...", IProgressMonitor.UNKNOWN);
-            	if (selectedStyle == DocumentStyle.GENERIC) {
-            		ExcelGenericStyle generic = new ExcelGenericStyle(fullPath, dataSource);
-            		generic.generateExcel();
-            	} else {
-            		ExcelSimpleStyle simple = new ExcelSimpleStyle(fullPath, dataSource);
-            		simple.generateExcel();
-            	}
-                monitor.done();
-            });
-
-            MessageDialog.openInformation(getShell(), "Success", "Excel file created:\n" + fullPath);
+            options.setTableFilter(TableFilter.parse(txtOwners.getText(), txtInclude.getText(), txtExclude.getText(),
+            		txtTables.getText()));
+        } catch (IllegalArgumentException e) {
+            MessageDialog.openError(getShell(), "Error", e.getMessage());
+            return;
+        }
+        options.setBackend(btnDirect.getSelection() ? ExportOptions.Backend.DIRECT
+        		: btnStreaming.getSelection() ? ExportOptions.Backend.STREAMING
+        		: ExportOptions.Backend.XSSF);
+        options.setRowWindow(spnRowWindow.getSelection());
+        options.setParallelism(spnParallelism.getSelection());
+        options.setSplit(btnSplitOwner.getSelection() ? ExportOptions.Split.OWNER
+        		: btnSplitTables.getSelection() ? ExportOptions.Split.TABLES
+        		: ExportOptions.Split.NONE);
+        options.setTablesPerWorkbook(spnTablesPerWorkbook.getSelection());
+        options.setIncremental(chkIncremental.getSelection());
+        options.setCacheTtlMinutes(chkCache.getSelection() ? spnCacheTtl.getSelection() : 0);
+        options.setStatsSheet(chkStatsSheet.getSelection());
+        options.setRelationshipsSheet(chkRelationships.getSelection());
+        options.setStatsFile(chkStatsFile.getSelection());
+        options.setDdlSource(btnDdlCompare.getSelection() ? ExportOptions.DdlSource.COMPARE
+        		: btnDdlSynthesized.getSelection() ? ExportOptions.DdlSource.SYNTHESIZED
+        		: ExportOptions.DdlSource.DATABASE);
 
+        // The job is queued behind earlier exports of the same connection; the dialog does not wait for it
+        ExportJob job;
+        try {
+            job = isBatch() ? createBatchJob(path, options) : createJob(fullPath, format, options);
         } catch (Exception e) {
             e.printStackTrace();
-            MessageDialog.openError(getShell(), "Error", "Failed to generate Excel.");
+            MessageDialog.openError(getShell(), "Error", "Failed to generate Excel.\n" + e.getMessage());
+            return;
         }
+        job.schedule();
 
         super.okPressed();
     }
 
+    private ExportJob createJob(String fullPath, ExportOptions.Format format, ExportOptions options) {
+        CubridDataSource dataSource = dataSources.get(0);
+        String jobName = "Export table definitions of " + dataSource.getContainer().getName();
+        if (format == ExportOptions.Format.EXCEL) {
+            ExcelExport export = new ExcelExport(dataSource, createStyle(fullPath, options));
+            return new ExportJob(jobName, dataSources, Path.of(fullPath), monitor -> {
+                export.run(monitor);
+                return summarize(fullPath, export.getErrors(), export.getStats());
+            });
+        }
+        return new ExportJob(jobName, dataSources, Path.of(fullPath), monitor -> {
+            // Created in the job, so that nothing touches the output file before earlier exports are done
+            SinkExport export = new SinkExport(dataSource, options, SinkExport.createSink(format, fullPath));
+            export.run(monitor);
+            return summarize(fullPath, export.getErrors(), export.getStats());
+        });
+    }
+
+    private static String summarize(String fullPath, List<String> errors, ExportStats stats) {
+        String message = "File created:\n" + fullPath;
+        if (!errors.isEmpty()) {
+            message += "\n\n" + errors.size() + " table(s) could not be exported:\n"
+            		+ String.join("\n", errors.subList(0, Math.min(errors.size(), 10)));
+        }
+        return message + "\n\n" + stats.format();
+    }
+
+    private ExportOptions.Format getFormat() {
+        return btnCsv.getSelection() ? ExportOptions.Format.CSV
+        		: btnJsonLines.getSelection() ? ExportOptions.Format.JSON_LINES
+        		: btnMarkdown.getSelection() ? ExportOptions.Format.MARKDOWN
+        		: ExportOptions.Format.EXCEL;
+    }
+
+    private boolean isBatch() {
+        return dataSources.size() > 1;
+    }
+
+    private ExcelMainStyle createStyle(String fullPath, ExportOptions options) {
+        return switch (selectedStyle) {
+        	case GENERIC -> new ExcelGenericStyle(fullPath, options);
+        	case CUSTOM -> new ExcelTemplateStyle(fullPath, options, ExcelTemplate.load(new File(txtTemplate.getText())));
+        	case SIMPLE -> new ExcelSimpleStyle(fullPath, options);
+        };
+    }
+
+    private ExportJob createBatchJob(String path, ExportOptions options) {
+        List<ExcelExport> exports = new ArrayList<>();
+        Set<String> fileNames = new HashSet<>();
+        for (CubridDataSource dataSource : dataSources) {
+            // Connections to databases of the same name get a numbered suffix
+            String baseName = ExcelExport.getDefaultFileName(dataSource);
+            String fileName = baseName;
+            for (int i = 2; !fileNames.add(fileName); i++) {
+                fileName = baseName + "_" + i;
+            }
+            exports.add(new ExcelExport(dataSource, createStyle(path + File.separator + fileName + ".xlsx", options)));
+        }
+        ExcelExportBatch batch = new ExcelExportBatch(exports, spnConcurrency.getSelection());
+        String jobName = "Export table definitions of " + dataSources.size() + " connections";
+        return new ExportJob(jobName, dataSources, Path.of(path), monitor -> {
+            batch.run(monitor);
+            StringBuilder message = new StringBuilder("Excel files created in:\n" + path + "\n");
+            for (ExcelExport export : batch.getExports()) {
+                String fileName = new File(export.getStyle().getFilePath()).getName();
+                Exception failure = batch.getFailures().get(export);
+                message.append("\n").append(fileName).append(": ");
+                if (failure != null) {
+                    message.append("failed, ").append(failure.getMessage());
+                } else {
+                    message.append(export.getStats().getTables()).append(" tables");
+                    if (!export.getErrors().isEmpty()) {
+                        message.append(", ").append(export.getErrors().size()).append(" could not be exported");
+                    }
+                }
+            }
+            return message.toString();
+        });
+    }
+
     @Override
     protected Composite createDialogArea(Composite parent) {
         Composite container = (Composite) super.createDialogArea(parent);
@@ -133,16 +278,58 @@ public class ExcelExportDialog extends BaseDialog {
         Label lblName = new Label(inputArea, SWT.NONE);
         lblName.setText("Excel name :");
 
-        String databaseName = "demodb"; // or get it dynamically
-        String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
         txtName = new Text(inputArea, SWT.BORDER);
-        txtName.setText("tablelist_" + databaseName + "_" + currentDate);
+        if (isBatch()) {
+            txtName.setText("tablelist_<database>_<date>, one file per connection");
+            txtName.setEnabled(false);
+        } else {
+            txtName.setText(ExcelExport.getDefaultFileName(dataSources.get(0)));
+        }
         GridData gdName = new GridData(SWT.FILL, SWT.CENTER, true, false);
         txtName.setLayoutData(gdName);
         
-        Label extension = new Label(inputArea, SWT.NONE);
-        extension.setText(".xlsx");
+        lblExtension = new Label(inputArea, SWT.NONE);
+        lblExtension.setText(".xlsx");
+
+        // === Format ===
+        Label lblFormat = new Label(inputArea, SWT.NONE);
+        lblFormat.setText("Format :");
+
+        Composite formatGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout formatLayout = new GridLayout(4, false);
+        formatLayout.marginWidth = 0;
+        formatLayout.marginHeight = 0;
+        formatLayout.horizontalSpacing = 10;
+        formatGroup.setLayout(formatLayout);
+        GridData gdFormat = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdFormat.horizontalSpan = 2;
+        formatGroup.setLayoutData(gdFormat);
+
+        Button btnExcel = new Button(formatGroup, SWT.RADIO);
+        btnExcel.setText("Excel");
+        btnExcel.setSelection(true);
+
+        btnCsv = new Button(formatGroup, SWT.RADIO);
+        btnCsv.setText("CSV");
+
+        btnJsonLines = new Button(formatGroup, SWT.RADIO);
+        btnJsonLines.setText("JSON Lines");
+
+        btnMarkdown = new Button(formatGroup, SWT.RADIO);
+        btnMarkdown.setText("Markdown");
+
+        // Several connections are always written as workbooks
+        if (isBatch()) {
+            btnCsv.setEnabled(false);
+            btnJsonLines.setEnabled(false);
+            btnMarkdown.setEnabled(false);
+        }
+        for (Button button : new Button[] { btnExcel, btnCsv, btnJsonLines, btnMarkdown }) {
+            button.addListener(SWT.Selection, e -> {
+                lblExtension.setText("." + getFormat().getExtension());
+                inputArea.layout();
+            });
+        }
 
         // === Document style ===
         Label lblStyle = new Label(inputArea, SWT.NONE);
@@ -150,7 +337,7 @@ public class ExcelExportDialog extends BaseDialog {
 
         // Container for radio buttons
         Composite styleGroup = new Composite(inputArea, SWT.NONE);
-        GridLayout styleLayout = new GridLayout(2, false);
+        GridLayout styleLayout = new GridLayout(3, false);
         styleLayout.marginWidth = 0;
         styleLayout.marginHeight = 0;
         styleLayout.horizontalSpacing = 10;
@@ -158,6 +345,7 @@ public class ExcelExportDialog extends BaseDialog {
 
         // Make the buttons align nicely next to the label
         GridData gdStyle = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdStyle.horizontalSpan = 2;
         styleGroup.setLayoutData(gdStyle);
 
         btnSimple = new Button(styleGroup, SWT.RADIO);
@@ -167,6 +355,9 @@ public class ExcelExportDialog extends BaseDialog {
         btnGeneric = new Button(styleGroup, SWT.RADIO);
         btnGeneric.setText("Generic");
 
+        btnCustom = new Button(styleGroup, SWT.RADIO);
+        btnCustom.setText("Custom template");
+
         // Listen for selection
         btnSimple.addListener(SWT.Selection, e -> {
             if (btnSimple.getSelection()) selectedStyle = DocumentStyle.SIMPLE;
@@ -174,7 +365,229 @@ public class ExcelExportDialog extends BaseDialog {
         btnGeneric.addListener(SWT.Selection, e -> {
             if (btnGeneric.getSelection()) selectedStyle = DocumentStyle.GENERIC;
         });
+        btnCustom.addListener(SWT.Selection, e -> {
+            if (btnCustom.getSelection()) selectedStyle = DocumentStyle.CUSTOM;
+            txtTemplate.setEnabled(btnCustom.getSelection());
+            btnTemplateBrowse.setEnabled(btnCustom.getSelection());
+        });
+
+        // === Template file ===
+        Label lblTemplate = new Label(inputArea, SWT.NONE);
+        lblTemplate.setText("Template file :");
+
+        txtTemplate = new Text(inputArea, SWT.BORDER | SWT.READ_ONLY);
+        txtTemplate.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        txtTemplate.setEnabled(false);
+
+        btnTemplateBrowse = new Button(inputArea, SWT.PUSH);
+        btnTemplateBrowse.setText("Browse...");
+        btnTemplateBrowse.setEnabled(false);
+        btnTemplateBrowse.addListener(SWT.Selection, e -> {
+            FileDialog dialog = new FileDialog(parent.getShell(), SWT.OPEN);
+            dialog.setFilterExtensions(new String[] { "*.xml" });
+            String file = dialog.open();
+            if (file != null) {
+                txtTemplate.setText(file);
+            }
+        });
+
+        // === Writer ===
+        Label lblWriter = new Label(inputArea, SWT.NONE);
+        lblWriter.setText("Writer :");
+
+        Composite writerGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout writerLayout = new GridLayout(5, false);
+        writerLayout.marginWidth = 0;
+        writerLayout.marginHeight = 0;
+        writerLayout.horizontalSpacing = 10;
+        writerGroup.setLayout(writerLayout);
+        GridData gdWriter = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdWriter.horizontalSpan = 2;
+        writerGroup.setLayoutData(gdWriter);
+
+        btnInMemory = new Button(writerGroup, SWT.RADIO);
+        btnInMemory.setText("In memory");
+        btnInMemory.setSelection(true);
+
+        btnStreaming = new Button(writerGroup, SWT.RADIO);
+        btnStreaming.setText("Streaming");
+
+        btnDirect = new Button(writerGroup, SWT.RADIO);
+        btnDirect.setText("Direct XML");
+
+        Label lblRowWindow = new Label(writerGroup, SWT.NONE);
+        lblRowWindow.setText("Row window :");
+
+        spnRowWindow = new Spinner(writerGroup, SWT.BORDER);
+        spnRowWindow.setValues(ExportOptions.DEFAULT_ROW_WINDOW, ExportOptions.MIN_ROW_WINDOW, 100000, 0, 10, 100);
+        spnRowWindow.setEnabled(false);
+
+        btnStreaming.addListener(SWT.Selection, e -> spnRowWindow.setEnabled(btnStreaming.getSelection()));
+
+        // === Split output ===
+        Label lblSplit = new Label(inputArea, SWT.NONE);
+        lblSplit.setText("Workbooks :");
+
+        Composite splitGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout splitLayout = new GridLayout(5, false);
+        splitLayout.marginWidth = 0;
+        splitLayout.marginHeight = 0;
+        splitLayout.horizontalSpacing = 10;
+        splitGroup.setLayout(splitLayout);
+        GridData gdSplit = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdSplit.horizontalSpan = 2;
+        splitGroup.setLayoutData(gdSplit);
+
+        Button btnSplitNone = new Button(splitGroup, SWT.RADIO);
+        btnSplitNone.setText("Single");
+        btnSplitNone.setSelection(true);
+
+        btnSplitOwner = new Button(splitGroup, SWT.RADIO);
+        btnSplitOwner.setText("Per owner");
+
+        btnSplitTables = new Button(splitGroup, SWT.RADIO);
+        btnSplitTables.setText("Per");
+
+        spnTablesPerWorkbook = new Spinner(splitGroup, SWT.BORDER);
+        spnTablesPerWorkbook.setValues(ExportOptions.DEFAULT_TABLES_PER_WORKBOOK, 1, 100000, 0, 10, 100);
+        spnTablesPerWorkbook.setEnabled(false);
+
+        Label lblTablesPerWorkbook = new Label(splitGroup, SWT.NONE);
+        lblTablesPerWorkbook.setText("tables");
+
+        btnSplitTables.addListener(SWT.Selection, e -> spnTablesPerWorkbook.setEnabled(btnSplitTables.getSelection()));
+
+        // === Table selection, comma separated; empty fields select everything ===
+        txtOwners = createFilterText(inputArea, "Owners :", "e.g. DBA,PUBLIC");
+        txtInclude = createFilterText(inputArea, "Include tables :", "LIKE patterns, e.g. T_%,CODE%");
+        txtExclude = createFilterText(inputArea, "Exclude tables :", "LIKE patterns, e.g. %_BAK,TMP%");
+        txtTables = createFilterText(inputArea, "Only tables :", "owner.table, e.g. DBA.ORDERS");
+
+        // === Parallel workers ===
+        Label lblParallelism = new Label(inputArea, SWT.NONE);
+        lblParallelism.setText("Parallel workers :");
+
+        spnParallelism = new Spinner(inputArea, SWT.BORDER);
+        spnParallelism.setValues(ExportOptions.DEFAULT_PARALLELISM, 1, ExportOptions.MAX_PARALLELISM, 0, 1, 4);
+        GridData gdParallelism = new GridData(SWT.LEFT, SWT.CENTER, false, false);
+        gdParallelism.horizontalSpan = 2;
+        spnParallelism.setLayoutData(gdParallelism);
+
+        // === Concurrent exports ===
+        if (isBatch()) {
+            Label lblConcurrency = new Label(inputArea, SWT.NONE);
+            lblConcurrency.setText("Concurrent exports :");
+
+            spnConcurrency = new Spinner(inputArea, SWT.BORDER);
+            spnConcurrency.setValues(Math.min(ExcelExportBatch.DEFAULT_CONCURRENCY, dataSources.size()), 1,
+            		ExcelExportBatch.MAX_CONCURRENCY, 0, 1, 4);
+            GridData gdConcurrency = new GridData(SWT.LEFT, SWT.CENTER, false, false);
+            gdConcurrency.horizontalSpan = 2;
+            spnConcurrency.setLayoutData(gdConcurrency);
+        }
+
+        // === DDL ===
+        Label lblDdl = new Label(inputArea, SWT.NONE);
+        lblDdl.setText("DDL :");
+
+        Composite ddlGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout ddlLayout = new GridLayout(3, false);
+        ddlLayout.marginWidth = 0;
+        ddlLayout.marginHeight = 0;
+        ddlLayout.horizontalSpacing = 10;
+        ddlGroup.setLayout(ddlLayout);
+        GridData gdDdl = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdDdl.horizontalSpan = 2;
+        ddlGroup.setLayoutData(gdDdl);
+
+        Button btnDdlDatabase = new Button(ddlGroup, SWT.RADIO);
+        btnDdlDatabase.setText("From database");
+        btnDdlDatabase.setSelection(true);
+
+        btnDdlSynthesized = new Button(ddlGroup, SWT.RADIO);
+        btnDdlSynthesized.setText("Synthesized");
+
+        btnDdlCompare = new Button(ddlGroup, SWT.RADIO);
+        btnDdlCompare.setText("Compare both");
+
+        // === Incremental ===
+        Label lblIncremental = new Label(inputArea, SWT.NONE);
+        lblIncremental.setText("Incremental :");
+
+        chkIncremental = new Button(inputArea, SWT.CHECK);
+        chkIncremental.setText("Only regenerate tables changed since the last export");
+        GridData gdIncremental = new GridData(SWT.LEFT, SWT.CENTER, false, false);
+        gdIncremental.horizontalSpan = 2;
+        chkIncremental.setLayoutData(gdIncremental);
+
+        // === Metadata snapshot ===
+        Label lblCache = new Label(inputArea, SWT.NONE);
+        lblCache.setText("Metadata cache :");
+
+        Composite cacheGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout cacheLayout = new GridLayout(3, false);
+        cacheLayout.marginWidth = 0;
+        cacheLayout.marginHeight = 0;
+        cacheLayout.horizontalSpacing = 10;
+        cacheGroup.setLayout(cacheLayout);
+        GridData gdCache = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdCache.horizontalSpan = 2;
+        cacheGroup.setLayoutData(gdCache);
+
+        chkCache = new Button(cacheGroup, SWT.CHECK);
+        chkCache.setText("Reuse definitions read in the last");
+
+        spnCacheTtl = new Spinner(cacheGroup, SWT.BORDER);
+        spnCacheTtl.setValues(ExportOptions.DEFAULT_CACHE_TTL_MINUTES, 1, 7 * 24 * 60, 0, 10, 60);
+        spnCacheTtl.setEnabled(false);
+
+        Label lblCacheMinutes = new Label(cacheGroup, SWT.NONE);
+        lblCacheMinutes.setText("minutes");
+
+        chkCache.addListener(SWT.Selection, e -> spnCacheTtl.setEnabled(chkCache.getSelection()));
+
+        // === Foreign keys ===
+        Label lblRelationships = new Label(inputArea, SWT.NONE);
+        lblRelationships.setText("Relationships :");
+
+        chkRelationships = new Button(inputArea, SWT.CHECK);
+        chkRelationships.setText("Foreign key and fan-in/fan-out sheets");
+        GridData gdRelationships = new GridData(SWT.LEFT, SWT.CENTER, false, false);
+        gdRelationships.horizontalSpan = 2;
+        chkRelationships.setLayoutData(gdRelationships);
+
+        // === Performance report ===
+        Label lblStats = new Label(inputArea, SWT.NONE);
+        lblStats.setText("Export stats :");
+
+        Composite statsGroup = new Composite(inputArea, SWT.NONE);
+        GridLayout statsLayout = new GridLayout(2, false);
+        statsLayout.marginWidth = 0;
+        statsLayout.marginHeight = 0;
+        statsLayout.horizontalSpacing = 10;
+        statsGroup.setLayout(statsLayout);
+        GridData gdStats = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gdStats.horizontalSpan = 2;
+        statsGroup.setLayoutData(gdStats);
+
+        chkStatsSheet = new Button(statsGroup, SWT.CHECK);
+        chkStatsSheet.setText("Hidden sheet");
+
+        chkStatsFile = new Button(statsGroup, SWT.CHECK);
+        chkStatsFile.setText("JSON file");
 
         return container;
     }
+
+    private static Text createFilterText(Composite parent, String label, String hint) {
+        Label lbl = new Label(parent, SWT.NONE);
+        lbl.setText(label);
+
+        Text text = new Text(parent, SWT.BORDER);
+        text.setMessage(hint);
+        GridData gd = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        gd.horizontalSpan = 2;
+        text.setLayoutData(gd);
+        return text;
+    }
 }
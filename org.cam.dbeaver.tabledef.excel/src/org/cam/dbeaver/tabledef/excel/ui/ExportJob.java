@@ -0,0 +1,122 @@
+package org.cam.dbeaver.tabledef.excel.ui;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.program.Program;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.progress.IProgressConstants;
+import org.jkiss.dbeaver.ext.cubrid.model.CubridDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.DefaultProgressMonitor;
+
+// Runs an export in the background. Exports of the same data source wait for each other through their
+// scheduling rule, exports of different data sources run side by side. When the export is done a
+// notification links to the output, and the finished job stays in the Progress view with an open action.
+public class ExportJob extends Job {
+    private static final String PLUGIN_ID = "org.cam.dbeaver.tabledef.excel";
+
+    // The export itself; returns the summary shown when it completes
+    @FunctionalInterface
+    public interface Export {
+        String run(DBRProgressMonitor monitor);
+    }
+
+    private final Path output;
+    private final Export export;
+
+    // 'output' is the written file, or the folder when several files are written
+    public ExportJob(String name, List<CubridDataSource> dataSources, Path output, Export export) {
+    	super(name);
+    	this.output = output;
+    	this.export = export;
+    	setUser(true);
+    	setRule(MultiRule.combine(dataSources.stream().map(dataSource -> new DataSourceRule(dataSource.getContainer()))
+    			.toArray(ISchedulingRule[]::new)));
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+    	String summary;
+    	try {
+    		summary = export.run(new DefaultProgressMonitor(monitor));
+    	} catch (CancellationException e) {
+    		return Status.CANCEL_STATUS;
+    	} catch (Exception e) {
+    		e.printStackTrace();
+    		return new Status(IStatus.ERROR, PLUGIN_ID, "Failed to generate " + output.getFileName() + ": " + e.getMessage(), e);
+    	}
+
+    	setProperty(IProgressConstants.KEEP_PROPERTY, Boolean.TRUE);
+    	setProperty(IProgressConstants.ACTION_PROPERTY, new Action("Open " + output.getFileName()) {
+    		@Override
+    		public void run() {
+    			Program.launch(output.toString());
+    		}
+    	});
+    	Display display = Display.getDefault();
+    	if (!display.isDisposed()) {
+    		display.asyncExec(() -> new CompletionDialog(display.getActiveShell(), getName(), summary, output).open());
+    	}
+    	return Status.OK_STATUS;
+    }
+
+    // Serializes the exports of one connection
+    private static final class DataSourceRule implements ISchedulingRule {
+    	private final DBPDataSourceContainer container;
+
+    	DataSourceRule(DBPDataSourceContainer container) {
+    		this.container = container;
+    	}
+
+    	@Override
+    	public boolean contains(ISchedulingRule rule) {
+    		return rule == this;
+    	}
+
+    	@Override
+    	public boolean isConflicting(ISchedulingRule rule) {
+    		return rule instanceof DataSourceRule other && other.container == container;
+    	}
+    }
+
+    // Modeless, so it does not get in the way of whatever the user is doing when the export finishes
+    private static final class CompletionDialog extends MessageDialog {
+    	private static final int OPEN = 0;
+    	private static final int SHOW_FOLDER = 1;
+
+    	private final Path output;
+
+    	CompletionDialog(Shell parentShell, String title, String summary, Path output) {
+    		super(parentShell, title, null, summary, INFORMATION, 0,
+    				Files.isDirectory(output) ? new String[] { "Open folder", "Close" }
+    						: new String[] { "Open", "Show in folder", "Close" });
+    		this.output = output;
+    		setShellStyle((getShellStyle() & ~SWT.APPLICATION_MODAL) | SWT.MODELESS);
+    		setBlockOnOpen(false);
+    	}
+
+    	@Override
+    	protected void buttonPressed(int buttonId) {
+    		if (buttonId == OPEN) {
+    			Program.launch(output.toString());
+    		} else if (buttonId == SHOW_FOLDER && !Files.isDirectory(output)) {
+    			Program.launch(output.toAbsolutePath().getParent().toString());
+    		}
+    		super.buttonPressed(buttonId);
+    	}
+    }
+}
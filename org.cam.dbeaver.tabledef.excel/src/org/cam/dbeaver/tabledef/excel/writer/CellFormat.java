@@ -0,0 +1,8 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+public enum CellFormat {
+    CENTER,
+    LEFT,
+    RIGHT,
+    BOLD
+}
@@ -0,0 +1,306 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+public class PoiWorkbookWriter implements WorkbookWriter {
+    private static final int BORDER_TOP = 1;
+    private static final int BORDER_BOTTOM = 2;
+    private static final int BORDER_LEFT = 4;
+    private static final int BORDER_RIGHT = 8;
+
+    private final String filePath;
+    private final Workbook workbook;
+    private final int rowWindow;
+    private final Map<CellFormat, CellStyle> styles = new EnumMap<>(CellFormat.class);
+    // Styles for blank cells on the edge of a merged region, indexed by BORDER_* mask
+    private final CellStyle[] borderStyles = new CellStyle[16];
+    private PoiSheetWriter lastSheet;
+
+    public PoiWorkbookWriter(String filePath, boolean streaming, int rowWindow) {
+        this.filePath = filePath;
+        this.rowWindow = streaming ? rowWindow : 0;
+        if (streaming) {
+            // Rows are flushed to compressed temp files by PoiSheetWriter once the
+            // merges touching them are in place, so SXSSF must not flush on its own
+            SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(-1);
+            streamingWorkbook.setCompressTempFiles(true);
+            workbook = streamingWorkbook;
+        } else {
+            workbook = new XSSFWorkbook();
+        }
+
+        // Font
+        Font normalFont = workbook.createFont();
+        normalFont.setFontName("Arial");
+        normalFont.setFontHeightInPoints((short) 10);
+        normalFont.setBold(false);
+
+        // Center style
+        CellStyle centerStyle = workbook.createCellStyle();
+        centerStyle.setWrapText(true);
+        centerStyle.setFont(normalFont);
+        centerStyle.setBorderTop(BorderStyle.THIN);
+        centerStyle.setBorderBottom(BorderStyle.THIN);
+        centerStyle.setBorderLeft(BorderStyle.THIN);
+        centerStyle.setBorderRight(BorderStyle.THIN);
+        centerStyle.setAlignment(HorizontalAlignment.CENTER);
+        centerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+        styles.put(CellFormat.CENTER, centerStyle);
+
+        // Left-aligned style
+        CellStyle leftStyle = workbook.createCellStyle();
+        leftStyle.cloneStyleFrom(centerStyle);
+        leftStyle.setAlignment(HorizontalAlignment.LEFT);
+        styles.put(CellFormat.LEFT, leftStyle);
+
+        // Right-aligned style
+        CellStyle rightStyle = workbook.createCellStyle();
+        rightStyle.cloneStyleFrom(centerStyle);
+        rightStyle.setAlignment(HorizontalAlignment.RIGHT);
+        styles.put(CellFormat.RIGHT, rightStyle);
+
+        // Bold style
+        CellStyle boldStyle = workbook.createCellStyle();
+        boldStyle.cloneStyleFrom(centerStyle);
+        Font boldFont = workbook.createFont();
+        boldFont.setFontName("Arial");
+        boldFont.setFontHeightInPoints((short) 10);
+        boldFont.setBold(true);
+        boldStyle.setFont(boldFont);
+        boldStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        boldStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        styles.put(CellFormat.BOLD, boldStyle);
+    }
+
+    @Override
+    public SheetWriter createSheet(String name, boolean hidden) {
+        finishLastSheet();
+        lastSheet = new PoiSheetWriter(workbook.createSheet(name));
+        if (hidden) {
+            workbook.setSheetHidden(workbook.getNumberOfSheets() - 1, true);
+        }
+        return lastSheet;
+    }
+
+    @Override
+    public void save() throws IOException {
+        finishLastSheet();
+        try (FileOutputStream out = new FileOutputStream(filePath)) {
+            workbook.write(out);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            if (workbook instanceof SXSSFWorkbook streamingWorkbook) {
+                streamingWorkbook.dispose();
+            }
+            workbook.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void abort() {
+        // Nothing is written to the output file before save
+        dispose();
+    }
+
+    private void finishLastSheet() {
+        if (lastSheet != null) {
+            // A finished sheet is never touched again, so none of its rows need to stay on the heap
+            lastSheet.applyMerges(Integer.MAX_VALUE);
+            lastSheet.flushRows(0);
+            lastSheet = null;
+        }
+    }
+
+    private CellStyle getBorderStyle(int mask) {
+        CellStyle style = borderStyles[mask];
+        if (style == null) {
+            style = workbook.createCellStyle();
+            style.setBorderTop((mask & BORDER_TOP) != 0 ? BorderStyle.THIN : BorderStyle.NONE);
+            style.setBorderBottom((mask & BORDER_BOTTOM) != 0 ? BorderStyle.THIN : BorderStyle.NONE);
+            style.setBorderLeft((mask & BORDER_LEFT) != 0 ? BorderStyle.THIN : BorderStyle.NONE);
+            style.setBorderRight((mask & BORDER_RIGHT) != 0 ? BorderStyle.THIN : BorderStyle.NONE);
+            borderStyles[mask] = style;
+        }
+        return style;
+    }
+
+    private class PoiSheetWriter implements SheetWriter {
+        private final Sheet sheet;
+        private final List<CellRangeAddress> pendingMerges = new ArrayList<>();
+        // Applied merges that still reach rows in memory; later merges are checked against them
+        private final List<CellRangeAddress> appliedMerges = new ArrayList<>();
+        private int rowsInMemory;
+
+        PoiSheetWriter(Sheet sheet) {
+            this.sheet = sheet;
+        }
+
+        @Override
+        public void setColumnWidths(int... widths) {
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, widths[i] * 256);
+            }
+        }
+
+        @Override
+        public void setRowHeightInPoints(int rowIdx, float height) {
+            getRow(rowIdx).setHeightInPoints(height);
+        }
+
+        @Override
+        public float getDefaultRowHeightInPoints() {
+            return sheet.getDefaultRowHeightInPoints();
+        }
+
+        @Override
+        public void addCell(int rowIdx, int colIdx, String content, CellFormat format) {
+            Cell cell = getRow(rowIdx).createCell(colIdx);
+            cell.setCellValue(content);
+            cell.setCellStyle(styles.get(format));
+        }
+
+        @Override
+        public void addCell(int rowIdx, int colIdx, long value, CellFormat format) {
+            Cell cell = getRow(rowIdx).createCell(colIdx);
+            if (value != 0) {
+                cell.setCellValue(value);
+            } else {
+                cell.setBlank();
+            }
+            cell.setCellStyle(styles.get(format));
+        }
+
+        @Override
+        public void mergeCells(int firstRow, int lastRow, int firstCol, int lastCol) {
+            CellRangeAddress region = new CellRangeAddress(firstRow, lastRow, firstCol, lastCol);
+            if (firstRow <= getLastFlushedRow()) {
+                throw new IllegalStateException("Merged region " + region.formatAsString()
+                        + " starts in rows that were already flushed in sheet '" + sheet.getSheetName() + "'");
+            }
+            pendingMerges.add(region);
+        }
+
+        // Registers the pending merges that end before 'beforeRow' in one pass: a single overlap check instead of
+        // one per addMergedRegion call, and borders only for the edge cells that do not exist yet
+        void applyMerges(int beforeRow) {
+            List<CellRangeAddress> complete = new ArrayList<>();
+            pendingMerges.removeIf(region -> region.getLastRow() < beforeRow && complete.add(region));
+            if (complete.isEmpty()) {
+                return;
+            }
+            Set<Long> covered = new HashSet<>();
+            for (CellRangeAddress region : appliedMerges) {
+                cover(region, covered);
+            }
+            for (CellRangeAddress region : complete) {
+                if (!cover(region, covered)) {
+                    throw new IllegalStateException("Merged region " + region.formatAsString()
+                            + " overlaps with another merged region in sheet '" + sheet.getSheetName() + "'");
+                }
+            }
+
+            for (CellRangeAddress region : complete) {
+                sheet.addMergedRegionUnsafe(region);
+                int firstRow = region.getFirstRow();
+                int lastRow = region.getLastRow();
+                int firstCol = region.getFirstColumn();
+                int lastCol = region.getLastColumn();
+                for (int r = firstRow; r <= lastRow; r++) {
+                    Row row = sheet.getRow(r);
+                    if (row == null) {
+                        row = sheet.createRow(r);
+                        rowsInMemory++;
+                    }
+                    boolean edgeRow = r == firstRow || r == lastRow;
+                    for (int c = firstCol; c <= lastCol; c = (edgeRow || c == lastCol) ? c + 1 : lastCol) {
+                        // Cells written through addCell already carry thin borders on every side
+                        if (row.getCell(c) == null) {
+                            int mask = (r == firstRow ? BORDER_TOP : 0) | (r == lastRow ? BORDER_BOTTOM : 0)
+                                    | (c == firstCol ? BORDER_LEFT : 0) | (c == lastCol ? BORDER_RIGHT : 0);
+                            row.createCell(c).setCellStyle(getBorderStyle(mask));
+                        }
+                    }
+                }
+            }
+            appliedMerges.addAll(complete);
+        }
+
+        // False when one of the region's cells is already covered
+        private boolean cover(CellRangeAddress region, Set<Long> covered) {
+            for (int r = region.getFirstRow(); r <= region.getLastRow(); r++) {
+                for (int c = region.getFirstColumn(); c <= region.getLastColumn(); c++) {
+                    if (!covered.add(((long) r << 16) | c)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        void flushRows(int keepRows) {
+            if (sheet instanceof SXSSFSheet streamingSheet) {
+                // A pending merge needs its rows for the edge borders, so everything from its first row stays
+                int keep = keepRows;
+                for (CellRangeAddress region : pendingMerges) {
+                    keep = Math.max(keep, sheet.getLastRowNum() - region.getFirstRow() + 1);
+                }
+                try {
+                    streamingSheet.flushRows(keep);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to flush Excel sheet: " + e.getMessage(), e);
+                }
+                rowsInMemory = Math.min(rowsInMemory, keep);
+                int lastFlushedRow = streamingSheet.getLastFlushedRowNum();
+                appliedMerges.removeIf(region -> region.getLastRow() <= lastFlushedRow);
+            }
+        }
+
+        private int getLastFlushedRow() {
+            return sheet instanceof SXSSFSheet streamingSheet ? streamingSheet.getLastFlushedRowNum() : -1;
+        }
+
+        private Row getRow(int rowIdx) {
+            Row row = sheet.getRow(rowIdx);
+            if (row == null) {
+                if (rowWindow > 0 && rowsInMemory >= 2 * rowWindow) {
+                    // Merges that end above the new row are complete; template group merges can reach further
+                    // down and stay pending until their last row is written or the sheet is finished
+                    applyMerges(rowIdx);
+                    flushRows(rowWindow);
+                }
+                row = sheet.createRow(rowIdx);
+                rowsInMemory++;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+// Read-only view of an earlier export whose sheets can be carried over into a new workbook.
+// Each sheet is streamed from its XML part when it is copied, so the previous export is never loaded as a
+// whole; only the shared strings and the style table are kept in memory.
+// The file is copied first because the new workbook is written to the same path.
+public class PreviousWorkbook implements AutoCloseable {
+    // Excel's width for columns without a <col> entry
+    private static final int DEFAULT_COLUMN_WIDTH = 8;
+
+    private final Path copy;
+    private final OPCPackage pkg;
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final Map<String, PackagePart> sheets = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<Integer, CellFormat> formats = new HashMap<>();
+
+    public PreviousWorkbook(String filePath) throws IOException {
+        copy = Files.createTempFile("tabledef-previous", ".xlsx");
+        Files.copy(Path.of(filePath), copy, StandardCopyOption.REPLACE_EXISTING);
+        OPCPackage opened = null;
+        try {
+            opened = OPCPackage.open(copy.toFile(), PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(opened);
+            sharedStrings = new ReadOnlySharedStringsTable(opened);
+            styles = reader.getStylesTable();
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                iterator.next().close();
+                sheets.put(iterator.getSheetName(), iterator.getSheetPart());
+            }
+        } catch (OpenXML4JException | SAXException | IOException | RuntimeException e) {
+            if (opened != null) {
+                opened.revert();
+            }
+            Files.deleteIfExists(copy);
+            throw new IOException("Failed to open previous export: " + e.getMessage(), e);
+        }
+        pkg = opened;
+    }
+
+    public boolean hasSheet(String name) {
+        return sheets.containsKey(name);
+    }
+
+    // The merges follow the rows in the sheet XML, but a streaming target has flushed the first rows by then.
+    // So the part is read twice: once for the merges, which are handed over first, and once for the cells.
+    public void copySheet(String name, SheetWriter target) {
+        PackagePart part = sheets.get(name);
+        if (part == null) {
+            throw new IllegalStateException("Sheet '" + name + "' is missing from the previous export");
+        }
+        try {
+            MergeReader merges = new MergeReader();
+            parse(part, merges);
+            for (CellRangeAddress region : merges.regions) {
+                target.mergeCells(region.getFirstRow(), region.getLastRow(), region.getFirstColumn(), region.getLastColumn());
+            }
+            parse(part, new SheetCopier(target));
+        } catch (IOException | SAXException | ParserConfigurationException e) {
+            throw new RuntimeException("Failed to copy sheet '" + name + "' from the previous export: " + e.getMessage(), e);
+        }
+    }
+
+    private static void parse(PackagePart part, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        try (InputStream in = part.getInputStream()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(in));
+        }
+    }
+
+    // Every cell of an export uses one of the CellFormat styles, so alignment and weight are enough to map it back
+    private CellFormat toFormat(int styleIdx) {
+        return formats.computeIfAbsent(styleIdx, idx -> {
+            XSSFCellStyle style = styles.getStyleAt(idx);
+            if (style == null) {
+                return CellFormat.CENTER;
+            }
+            if (style.getFont().getBold()) {
+                return CellFormat.BOLD;
+            }
+            if (style.getAlignment() == HorizontalAlignment.LEFT) {
+                return CellFormat.LEFT;
+            }
+            if (style.getAlignment() == HorizontalAlignment.RIGHT) {
+                return CellFormat.RIGHT;
+            }
+            return CellFormat.CENTER;
+        });
+    }
+
+    @Override
+    public void close() {
+        pkg.revert();
+        try {
+            Files.deleteIfExists(copy);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class MergeReader extends DefaultHandler {
+        private final List<CellRangeAddress> regions = new ArrayList<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("mergeCell".equals(localName)) {
+                regions.add(CellRangeAddress.valueOf(attributes.getValue("ref")));
+            }
+        }
+    }
+
+    // Writes the cells and row heights of one sheet part to the target as they are parsed.
+    // The column widths come before the cells in the XML but are only set once the used columns are known.
+    private class SheetCopier extends DefaultHandler {
+        private final SheetWriter target;
+        private final StringBuilder text = new StringBuilder();
+        private int[] columnWidths = new int[0];
+        private int numColumns;
+        private int rowIdx = -1;
+        private int colIdx;
+        private int styleIdx;
+        private String cellType;
+        private boolean inValue;
+        private boolean hasValue;
+
+        SheetCopier(SheetWriter target) {
+            this.target = target;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "col" -> {
+                    int min = Integer.parseInt(attributes.getValue("min"));
+                    int max = Integer.parseInt(attributes.getValue("max"));
+                    String width = attributes.getValue("width");
+                    if (width != null) {
+                        if (columnWidths.length < max) {
+                            int known = columnWidths.length;
+                            columnWidths = Arrays.copyOf(columnWidths, max);
+                            Arrays.fill(columnWidths, known, max, DEFAULT_COLUMN_WIDTH);
+                        }
+                        Arrays.fill(columnWidths, min - 1, max, (int) Double.parseDouble(width));
+                    }
+                }
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowIdx = r == null ? rowIdx + 1 : Integer.parseInt(r) - 1;
+                    colIdx = -1;
+                    String height = attributes.getValue("ht");
+                    if (height != null) {
+                        target.setRowHeightInPoints(rowIdx, Float.parseFloat(height));
+                    }
+                }
+                case "c" -> {
+                    String r = attributes.getValue("r");
+                    colIdx = r == null ? colIdx + 1 : new CellReference(r).getCol();
+                    String s = attributes.getValue("s");
+                    styleIdx = s == null ? 0 : Integer.parseInt(s);
+                    cellType = attributes.getValue("t");
+                    text.setLength(0);
+                    hasValue = false;
+                }
+                case "v", "t" -> {
+                    inValue = true;
+                    hasValue = true;
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    CellFormat format = toFormat(styleIdx);
+                    if ("s".equals(cellType)) {
+                        String value = sharedStrings.getItemAt(Integer.parseInt(text.toString().trim())).getString();
+                        target.addCell(rowIdx, colIdx, value, format);
+                    } else if (hasValue && (cellType == null || "n".equals(cellType))) {
+                        target.addCell(rowIdx, colIdx, (long) Double.parseDouble(text.toString()), format);
+                    } else {
+                        // Blank cells, inline strings and formula results
+                        target.addCell(rowIdx, colIdx, text.toString(), format);
+                    }
+                    numColumns = Math.max(numColumns, colIdx + 1);
+                }
+                case "worksheet" -> {
+                    int[] widths = new int[numColumns];
+                    for (int i = 0; i < numColumns; i++) {
+                        widths[i] = i < columnWidths.length ? columnWidths[i] : DEFAULT_COLUMN_WIDTH;
+                    }
+                    target.setColumnWidths(widths);
+                }
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+public interface SheetWriter {
+
+    void setColumnWidths(int... widths);
+
+    void setRowHeightInPoints(int rowIdx, float height);
+
+    float getDefaultRowHeightInPoints();
+
+    void addCell(int rowIdx, int colIdx, String content, CellFormat format);
+
+    // Zero is written as a blank cell
+    void addCell(int rowIdx, int colIdx, long value, CellFormat format);
+
+    void mergeCells(int firstRow, int lastRow, int firstCol, int lastCol);
+}
@@ -0,0 +1,439 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.util.WorkbookUtil;
+
+// Writes the .xlsx parts straight into the zip stream without the POI object model.
+// Each sheet is buffered until the next one is started, then written as one zip entry. The zip goes
+// to a temp file next to the output file and replaces it on save, so a failed export keeps the previous one.
+public class SpreadsheetMLWriter implements WorkbookWriter {
+    private static final float DEFAULT_ROW_HEIGHT = 15f;
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    // Fixed style table: xf 0 is the default, CellFormat ordinals map to xf 1..4
+    private static final String STYLES_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<fonts count=\"3\">"
+            + "<font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>"
+            + "<font><sz val=\"10\"/><name val=\"Arial\"/></font>"
+            + "<font><b/><sz val=\"10\"/><name val=\"Arial\"/></font>"
+            + "</fonts>"
+            + "<fills count=\"3\">"
+            + "<fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"22\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "</fills>"
+            + "<borders count=\"2\">"
+            + "<border><left/><right/><top/><bottom/><diagonal/></border>"
+            + "<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thin\"/><bottom style=\"thin\"/><diagonal/></border>"
+            + "</borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"5\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + xf(1, 0, "center")
+            + xf(1, 0, "left")
+            + xf(1, 0, "right")
+            + xf(2, 2, "center")
+            + "</cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+
+    private final String filePath;
+    private Path tempFile;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final Set<String> sheetNameKeys = new HashSet<>();
+    private final Set<Integer> hiddenSheets = new HashSet<>();
+    private ZipOutputStream zip;
+    private Writer out;
+    private RawSheetWriter currentSheet;
+
+    public SpreadsheetMLWriter(String filePath) {
+        this.filePath = filePath;
+    }
+
+    private static String xf(int fontId, int fillId, String horizontal) {
+        return "<xf numFmtId=\"0\" fontId=\"" + fontId + "\" fillId=\"" + fillId + "\" borderId=\"1\" xfId=\"0\""
+                + " applyFont=\"1\"" + (fillId != 0 ? " applyFill=\"1\"" : "") + " applyBorder=\"1\" applyAlignment=\"1\">"
+                + "<alignment horizontal=\"" + horizontal + "\" vertical=\"center\" wrapText=\"1\"/></xf>";
+    }
+
+    @Override
+    public SheetWriter createSheet(String name, boolean hidden) {
+        finishCurrentSheet();
+        if (name.length() > MAX_SHEET_NAME_LENGTH) {
+            name = name.substring(0, MAX_SHEET_NAME_LENGTH);
+        }
+        WorkbookUtil.validateSheetName(name);
+        if (!sheetNameKeys.add(name.toUpperCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("The workbook already contains a sheet named '" + name + "'");
+        }
+        if (hidden) {
+            hiddenSheets.add(sheetNames.size());
+        }
+        sheetNames.add(name);
+        currentSheet = new RawSheetWriter();
+        return currentSheet;
+    }
+
+    @Override
+    public void save() throws IOException {
+        finishCurrentSheet();
+        open();
+        int sheetCount = sheetNames.size();
+
+        beginEntry("xl/workbook.xml");
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 0; i < sheetCount; i++) {
+            out.write("<sheet name=\"");
+            writeEscaped(out, sheetNames.get(i));
+            out.write("\" sheetId=\"" + (i + 1) + "\"" + (hiddenSheets.contains(i) ? " state=\"hidden\"" : "")
+                    + " r:id=\"rId" + (i + 1) + "\"/>");
+        }
+        out.write("</sheets></workbook>");
+        endEntry();
+
+        beginEntry("xl/_rels/workbook.xml.rels");
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            out.write("<Relationship Id=\"rId" + i + "\" Target=\"worksheets/sheet" + i + ".xml\""
+                    + " Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"/>");
+        }
+        out.write("<Relationship Id=\"rId" + (sheetCount + 1) + "\" Target=\"styles.xml\""
+                + " Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\"/>");
+        out.write("</Relationships>");
+        endEntry();
+
+        beginEntry("xl/styles.xml");
+        out.write(STYLES_XML);
+        endEntry();
+
+        beginEntry("_rels/.rels");
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Target=\"xl/workbook.xml\""
+                + " Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\"/>"
+                + "</Relationships>");
+        endEntry();
+
+        beginEntry("[Content_Types].xml");
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\""
+                + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\""
+                + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            out.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\""
+                    + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        out.write("</Types>");
+        endEntry();
+
+        zip.finish();
+        out.close();
+        out = null;
+        zip = null;
+
+        Path target = Path.of(filePath);
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        tempFile = null;
+    }
+
+    @Override
+    public void dispose() {
+        currentSheet = null;
+        if (zip != null) {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            zip = null;
+            out = null;
+        }
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            tempFile = null;
+        }
+    }
+
+    @Override
+    public void abort() {
+        // The output file is only replaced by save
+        dispose();
+    }
+
+    private void open() throws IOException {
+        if (zip == null) {
+            Path target = Path.of(filePath).toAbsolutePath();
+            // Not Files.createTempFile, whose owner-only permissions would carry over to the output file
+            tempFile = target.resolveSibling(target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+            zip = new ZipOutputStream(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+            out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 1 << 16);
+        }
+    }
+
+    private void beginEntry(String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void endEntry() throws IOException {
+        out.flush();
+        zip.closeEntry();
+    }
+
+    private void finishCurrentSheet() {
+        if (currentSheet == null) {
+            return;
+        }
+        try {
+            open();
+            beginEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml");
+            currentSheet.write(out);
+            endEntry();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write Excel sheet: " + e.getMessage(), e);
+        }
+        currentSheet = null;
+    }
+
+    private static void writeCellRef(Writer out, int rowIdx, int colIdx) throws IOException {
+        writeColumnName(out, colIdx);
+        out.write(Integer.toString(rowIdx + 1));
+    }
+
+    private static void writeColumnName(Writer out, int colIdx) throws IOException {
+        if (colIdx >= 26) {
+            writeColumnName(out, colIdx / 26 - 1);
+        }
+        out.write('A' + colIdx % 26);
+    }
+
+    static void writeEscaped(Writer out, String text) throws IOException {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                case '\t', '\n', '\r' -> out.write(c);
+                // Text that reads like an escape gets its underscore escaped, so Excel shows it as typed
+                case '_' -> out.write(isEscapeAt(text, i) ? "_x005F_" : "_");
+                case '\uFFFE', '\uFFFF' -> out.write('?');
+                default -> {
+                    if (c < 0x20) {
+                        // Not allowed in XML 1.0; use the same escape as Excel
+                        out.write(String.format("_x%04X_", (int) c));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        out.write(c);
+                        out.write(text.charAt(++i));
+                    } else if (Character.isSurrogate(c)) {
+                        // A lone surrogate is no character at all; replaced as POI does
+                        out.write('?');
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    // _xHHHH_ at 'index'
+    private static boolean isEscapeAt(String text, int index) {
+        if (index + 7 > text.length() || text.charAt(index + 1) != 'x' || text.charAt(index + 6) != '_') {
+            return false;
+        }
+        for (int i = index + 2; i < index + 6; i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class RawRow {
+        private Object[] values = new Object[8];
+        private byte[] formats = new byte[8];
+        private float height = -1;
+        private int lastCol = -1;
+
+        void set(int colIdx, Object value, CellFormat format) {
+            if (colIdx >= formats.length) {
+                int capacity = Math.max(colIdx + 1, formats.length * 2);
+                values = Arrays.copyOf(values, capacity);
+                formats = Arrays.copyOf(formats, capacity);
+            }
+            values[colIdx] = value;
+            formats[colIdx] = (byte) (format.ordinal() + 1);
+            lastCol = Math.max(lastCol, colIdx);
+        }
+
+        boolean has(int colIdx) {
+            return colIdx < formats.length && formats[colIdx] != 0;
+        }
+    }
+
+    private static final class RawSheetWriter implements SheetWriter {
+        private final List<RawRow> rows = new ArrayList<>();
+        private int[] merges = new int[32];
+        private int mergeCount;
+        private int[] columnWidths = new int[0];
+
+        @Override
+        public void setColumnWidths(int... widths) {
+            columnWidths = widths.clone();
+        }
+
+        @Override
+        public void setRowHeightInPoints(int rowIdx, float height) {
+            getRow(rowIdx).height = height;
+        }
+
+        @Override
+        public float getDefaultRowHeightInPoints() {
+            return DEFAULT_ROW_HEIGHT;
+        }
+
+        @Override
+        public void addCell(int rowIdx, int colIdx, String content, CellFormat format) {
+            getRow(rowIdx).set(colIdx, content, format);
+        }
+
+        @Override
+        public void addCell(int rowIdx, int colIdx, long value, CellFormat format) {
+            getRow(rowIdx).set(colIdx, value != 0 ? Long.valueOf(value) : null, format);
+        }
+
+        @Override
+        public void mergeCells(int firstRow, int lastRow, int firstCol, int lastCol) {
+            if ((mergeCount + 1) * 4 > merges.length) {
+                merges = Arrays.copyOf(merges, merges.length * 2);
+            }
+            int offset = mergeCount++ * 4;
+            merges[offset] = firstRow;
+            merges[offset + 1] = lastRow;
+            merges[offset + 2] = firstCol;
+            merges[offset + 3] = lastCol;
+        }
+
+        private RawRow getRow(int rowIdx) {
+            while (rows.size() <= rowIdx) {
+                rows.add(null);
+            }
+            RawRow row = rows.get(rowIdx);
+            if (row == null) {
+                row = new RawRow();
+                rows.set(rowIdx, row);
+            }
+            return row;
+        }
+
+        void write(Writer out) throws IOException {
+            // Merged cells draw their borders from every covered cell, so fill the gaps with bordered blanks
+            for (int m = 0; m < mergeCount * 4; m += 4) {
+                for (int r = merges[m]; r <= merges[m + 1]; r++) {
+                    RawRow row = getRow(r);
+                    for (int c = merges[m + 2]; c <= merges[m + 3]; c++) {
+                        if (!row.has(c)) {
+                            row.set(c, null, CellFormat.CENTER);
+                        }
+                    }
+                }
+            }
+
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+            out.write("<sheetFormatPr defaultRowHeight=\"" + DEFAULT_ROW_HEIGHT + "\"/>");
+            if (columnWidths.length > 0) {
+                out.write("<cols>");
+                for (int i = 0; i < columnWidths.length; i++) {
+                    out.write("<col min=\"" + (i + 1) + "\" max=\"" + (i + 1) + "\" width=\"" + columnWidths[i]
+                            + "\" customWidth=\"1\"/>");
+                }
+                out.write("</cols>");
+            }
+
+            out.write("<sheetData>");
+            for (int r = 0; r < rows.size(); r++) {
+                RawRow row = rows.get(r);
+                if (row == null) {
+                    continue;
+                }
+                out.write("<row r=\"");
+                out.write(Integer.toString(r + 1));
+                if (row.height >= 0) {
+                    out.write("\" ht=\"" + row.height + "\" customHeight=\"1");
+                }
+                out.write("\">");
+                for (int c = 0; c <= row.lastCol; c++) {
+                    if (!row.has(c)) {
+                        continue;
+                    }
+                    Object value = row.values[c];
+                    out.write("<c r=\"");
+                    writeCellRef(out, r, c);
+                    out.write("\" s=\"");
+                    out.write('0' + row.formats[c]);
+                    if (value instanceof String text) {
+                        out.write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                        writeEscaped(out, text);
+                        out.write("</t></is></c>");
+                    } else if (value != null) {
+                        out.write("\"><v>");
+                        out.write(value.toString());
+                        out.write("</v></c>");
+                    } else {
+                        out.write("\"/>");
+                    }
+                }
+                out.write("</row>");
+            }
+            out.write("</sheetData>");
+
+            if (mergeCount > 0) {
+                out.write("<mergeCells count=\"" + mergeCount + "\">");
+                for (int m = 0; m < mergeCount * 4; m += 4) {
+                    out.write("<mergeCell ref=\"");
+                    writeCellRef(out, merges[m], merges[m + 2]);
+                    out.write(':');
+                    writeCellRef(out, merges[m + 1], merges[m + 3]);
+                    out.write("\"/>");
+                }
+                out.write("</mergeCells>");
+            }
+            out.write("</worksheet>");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.cam.dbeaver.tabledef.excel.writer;
+
+import java.io.IOException;
+
+public interface WorkbookWriter {
+
+    // Starting a new sheet finishes the previous one; it must not be written to afterwards
+    default SheetWriter createSheet(String name) {
+        return createSheet(name, false);
+    }
+
+    // Hidden sheets are not shown in Excel's tab bar; at least one sheet of the workbook must stay visible
+    SheetWriter createSheet(String name, boolean hidden);
+
+    void save() throws IOException;
+
+    // Releases temp files and buffers, whether or not the workbook was saved
+    void dispose();
+
+    // Gives up on an unsaved workbook; an existing output file is left as it was
+    void abort();
+}